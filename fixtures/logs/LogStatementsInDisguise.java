@@ -0,0 +1,36 @@
+package logs;
+
+class LogStatementsInDisguise {
+
+    // only the call in the lambda is a log call
+    public void m1() {
+        new org.Info().run();
+        foo(".debug(x)");
+        foo(() -> log.warn("x"));
+    }
+
+    // only the call with a receiver is a log call
+    public void m2() {
+        this.<String>info("x");
+        info("x");
+        foo(".debug");
+        foo(org.info);
+    }
+
+    // only the call that is a statement counts, not the one passed as an argument
+    public void m3() {
+        foo(() -> {
+            log.trace("x");
+        });
+        foo(new Runnable() {
+            public void run() {
+            }
+        }, log.error("x"));
+    }
+
+    // chained calls, and log levels in any case
+    public void m4() {
+        super.atInfo().log("x");
+        Logger.ERROR("x");
+    }
+}
@@ -0,0 +1,37 @@
+package wmc;
+
+public class CC11 {
+
+	// operators in strings and chars do not count
+	public void m1(String s, int a, boolean x) {
+		if(s.equals("a && b || c") && x) {
+			a++;
+		}
+		while(s.indexOf('|') > 0 | x) {
+			a--;
+		}
+	}
+
+	// nor do compound assignments, or the operators of lambdas in a condition
+	public void m2(int a, boolean x) {
+		if((a &= 2) > 0 || x) {
+			a++;
+		}
+		if(java.util.Optional.of(a).filter(v -> v > 0 && v < 10).isPresent()) {
+			a--;
+		}
+		if(new StringBuilder("&&&").length() > a) {
+			a--;
+		}
+	}
+
+	// nor lambdas with a block and anonymous classes
+	public void m3(int a) {
+		if(java.util.Optional.of(a).filter(v -> { return v > 0 && v < 10; }).isPresent()) {
+			a--;
+		}
+		if(new Object() { boolean b() { return true & false; } }.b()) {
+			a--;
+		}
+	}
+}
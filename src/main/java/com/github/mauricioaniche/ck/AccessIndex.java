@@ -0,0 +1,249 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.AccessAwareMetric;
+import com.github.mauricioaniche.ck.util.ObjectIntMap;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * The fields and variables that each method (or initializer) of a class accesses. The visitor builds it
+ * once, while it visits the class, so that each name in the code is looked up once for all metrics that
+ * need it (see {@link AccessAwareMetric}), instead of once per metric.
+ *
+ * Names are matched by their identifiers:
+ * <ul>
+ *     <li>for the cohesion of the class, a name is a field if a field with that name was declared before it,
+ *     and it is accessed by the last method declared before it;</li>
+ *     <li>for the fields a method uses, a name is a field if the class of the method declares it and no
+ *     variable declared before it in the method has the same name (unless it is accessed as this.field);</li>
+ *     <li>for the variables a method uses, a name is a variable (or parameter) declared before it in the method.</li>
+ * </ul>
+ */
+public class AccessIndex {
+
+	private final CKContext context;
+
+	// ids of the fields declared so far, in the order they are declared
+	private final Map<String, Integer> fieldIds;
+
+	// names of the fields (including enum constants) of the class that declares the methods, as JDT sees them
+	// (or as they are declared in the code, if the method has no binding)
+	private Object declaringClass;
+	private Set<String> fieldsOfDeclaringClass;
+
+	private final List<MethodAccesses> methods;
+	// the method (or initializer) being visited, if any
+	private MethodAccesses current;
+	// the last method declared so far, if any
+	private MethodAccesses lastMethod;
+
+	/**
+	 * The fields and variables accessed by a single method (or initializer)
+	 */
+	public class MethodAccesses {
+
+		private final String methodName;
+		// fields of the class of the method; none if the method could not be resolved, or if it is an initializer
+		private final Set<String> fieldsOfTheClass;
+
+		// ids of the fields the method accesses, for the cohesion of the class
+		private final BitSet fieldIds;
+		private final ObjectIntMap<String> fieldUsage;
+		private final ObjectIntMap<String> variablesUsage;
+
+		// variables declared so far, and variables and parameters declared so far
+		private final Set<String> variables;
+		private final Set<String> variablesAndParameters;
+		private boolean isFieldAccess;
+		private boolean isQualifiedName;
+
+		private MethodAccesses(String methodName, Set<String> fieldsOfTheClass) {
+			this.methodName = methodName;
+			this.fieldsOfTheClass = fieldsOfTheClass;
+			this.fieldIds = new BitSet();
+			this.fieldUsage = new ObjectIntMap<>();
+			this.variablesUsage = new ObjectIntMap<>();
+			this.variables = new HashSet<>();
+			this.variablesAndParameters = new HashSet<>();
+		}
+
+		/**
+		 * @return The name of the method, with its parameter types, e.g. m1/1[int]
+		 */
+		public String getMethodName() {
+			return methodName;
+		}
+
+		/**
+		 * @return The ids of the fields (see {@link AccessIndex#getNumberOfFields()}) the method accesses
+		 */
+		public BitSet getFieldIds() {
+			return fieldIds;
+		}
+
+		/**
+		 * @return How many times the method accesses each field of its class, by name
+		 */
+		public ObjectIntMap<String> getFieldUsage() {
+			return fieldUsage;
+		}
+
+		/**
+		 * @return How many times each variable (or parameter) of the method is used, by name.
+		 *         Declaring it does not count, but declaring another variable with the same name does.
+		 */
+		public ObjectIntMap<String> getVariablesUsage() {
+			return variablesUsage;
+		}
+
+		private void visit(String name) {
+			boolean field = fieldsOfTheClass.contains(name);
+			boolean accessFieldUsingThis = isFieldAccess && field;
+			boolean accessFieldUsingOnlyVariableName = !isFieldAccess && field && !variables.contains(name);
+			if((accessFieldUsingThis || accessFieldUsingOnlyVariableName) && !isQualifiedName)
+				plusOne(fieldUsage, name, 0);
+
+			if(variablesAndParameters.contains(name))
+				plusOne(variablesUsage, name, -1);
+		}
+
+		private void plusOne(ObjectIntMap<String> usage, String name, int firstUsage) {
+			name = context.intern(name);
+			usage.put(name, usage.get(name, firstUsage) + 1);
+		}
+	}
+
+	AccessIndex(CKContext context) {
+		this.context = context;
+		this.fieldIds = new HashMap<>();
+		this.methods = new ArrayList<>();
+	}
+
+	/**
+	 * @return How many fields the class declares (enum constants are not fields here)
+	 */
+	public int getNumberOfFields() {
+		return fieldIds.size();
+	}
+
+	/**
+	 * @return The ids of the fields the class declares, by name
+	 */
+	public Map<String, Integer> getFieldIds() {
+		return Collections.unmodifiableMap(fieldIds);
+	}
+
+	/**
+	 * @return The methods of the class (but not its initializers), in the order they are declared
+	 */
+	public List<MethodAccesses> getMethods() {
+		return Collections.unmodifiableList(methods);
+	}
+
+	MethodAccesses startMethod(MethodDeclaration node, String methodName) {
+		IMethodBinding binding = node.resolveBinding();
+		Set<String> fields = binding != null ? fieldsOf(binding)
+				: node.getAST().hasResolvedBindings() ? Collections.emptySet() : fieldsOf(node.getParent());
+		current = new MethodAccesses(methodName, fields);
+		methods.add(current);
+		lastMethod = current;
+		return current;
+	}
+
+	MethodAccesses startInitializer(String initializerName) {
+		current = new MethodAccesses(initializerName, Collections.emptySet());
+		return current;
+	}
+
+	void endMethod() {
+		current = null;
+	}
+
+	// the methods of a class are all declared by the same class, so its fields are looked up once
+	private Set<String> fieldsOf(IMethodBinding binding) {
+		if(binding.getDeclaringClass() != declaringClass) {
+			declaringClass = binding.getDeclaringClass();
+			fieldsOfDeclaringClass = new HashSet<>();
+			for (IVariableBinding field : binding.getDeclaringClass().getDeclaredFields())
+				fieldsOfDeclaringClass.add(field.getName());
+		}
+		return fieldsOfDeclaringClass;
+	}
+
+	// when only the syntax is parsed, the fields are the ones the class declares in the code
+	private Set<String> fieldsOf(ASTNode type) {
+		if(type != declaringClass) {
+			declaringClass = type;
+			fieldsOfDeclaringClass = new HashSet<>();
+
+			List<?> declarations = type instanceof AbstractTypeDeclaration ? ((AbstractTypeDeclaration) type).bodyDeclarations()
+					: type instanceof AnonymousClassDeclaration ? ((AnonymousClassDeclaration) type).bodyDeclarations()
+					: Collections.emptyList();
+			for(Object declaration : declarations) {
+				if(declaration instanceof FieldDeclaration) {
+					for(Object fragment : ((FieldDeclaration) declaration).fragments())
+						fieldsOfDeclaringClass.add(((VariableDeclarationFragment) fragment).getName().getIdentifier());
+				}
+			}
+			if(type instanceof EnumDeclaration) {
+				for(Object constant : ((EnumDeclaration) type).enumConstants())
+					fieldsOfDeclaringClass.add(((EnumConstantDeclaration) constant).getName().getIdentifier());
+			}
+		}
+		return fieldsOfDeclaringClass;
+	}
+
+	void visit(FieldDeclaration node) {
+		for(Object o : node.fragments()) {
+			VariableDeclarationFragment fragment = (VariableDeclarationFragment) o;
+			fieldIds.putIfAbsent(fragment.getName().getIdentifier(), fieldIds.size());
+		}
+	}
+
+	void visit(VariableDeclarationFragment node) {
+		if(current == null)
+			return;
+
+		String name = node.getName().getIdentifier();
+		current.variables.add(name);
+		current.variablesAndParameters.add(name);
+	}
+
+	void visit(SingleVariableDeclaration node) {
+		if(current != null)
+			current.variablesAndParameters.add(node.getName().getIdentifier());
+	}
+
+	void visit(FieldAccess node) {
+		if(current != null)
+			current.isFieldAccess = true;
+	}
+
+	void endVisit(FieldAccess node) {
+		if(current != null)
+			current.isFieldAccess = false;
+	}
+
+	void visit(QualifiedName node) {
+		if(current != null)
+			current.isQualifiedName = true;
+	}
+
+	void endVisit(QualifiedName node) {
+		if(current != null)
+			current.isQualifiedName = false;
+	}
+
+	void visit(SimpleName node) {
+		String name = node.getIdentifier();
+
+		// even outside methods (e.g., in an initializer), fields count as accessed by the last method
+		Integer field = fieldIds.get(name);
+		if(field != null && lastMethod != null)
+			lastMethod.fieldIds.set(field);
+
+		if(current != null)
+			current.visit(name);
+	}
+}
@@ -1,27 +1,48 @@
 package com.github.mauricioaniche.ck;
 
 import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
+import com.github.mauricioaniche.ck.metric.DeclarationsOnly;
 import com.github.mauricioaniche.ck.metric.MethodLevelMetric;
+import com.github.mauricioaniche.ck.metric.NeedsBindings;
 import com.github.mauricioaniche.ck.util.FileUtils;
+import com.github.mauricioaniche.ck.util.JDTUtils;
 import com.github.mauricioaniche.ck.util.MetricsFinder;
-import com.google.common.collect.Lists;
+import com.github.mauricioaniche.ck.util.SourceRoots;
 import org.apache.log4j.Logger;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class CK {
 
-	private final int maxAtOnce;
+	private final PartitionPlanner planner;
 	private final boolean useJars;
+	private final int threads;
+	private CKCache cache;
+	private boolean syntaxOnly;
+	private final boolean structureOnly;
+	// null means all metrics
+	private final Collection<String> metrics;
 	
 	private static Logger log = Logger.getLogger(CK.class);
 
@@ -33,30 +54,116 @@ public class CK {
 		this.useJars = false;
 		this.classLevelMetrics = classLevelMetrics;
 		this.methodLevelMetrics = methodLevelMetrics;
-		this.maxAtOnce = 100;
+		this.planner = PartitionPlanner.basedOnFiles(100);
+		this.threads = 1;
+		this.structureOnly = false;
+		this.metrics = null;
 	}
 
 	public CK(boolean useJars, int maxAtOnce, boolean variablesAndFields) {
-		MetricsFinder finder = new MetricsFinder();
+		this(useJars, maxAtOnce, variablesAndFields, 1);
+	}
+
+	/**
+	 * @param useJars Whether CK should look for jar files in the project to better resolve types
+	 * @param maxAtOnce Max number of files per JDT partition, 0 = automatic selection based on memory
+	 *                  (divided among the threads) and on the size of the files
+	 * @param variablesAndFields Whether variable- and field-level metrics should be calculated
+	 * @param threads Number of partitions parsed in parallel. 1 parses them one after the other,
+	 *                0 uses one thread per available processor.
+	 */
+	public CK(boolean useJars, int maxAtOnce, boolean variablesAndFields, int threads) {
+		this(useJars, maxAtOnce, variablesAndFields, threads, null);
+	}
+
+	/**
+	 * @param metrics The metrics to calculate, by the name of their columns in the output (e.g., "wmc" or "lcom*"),
+	 *                or null for all of them. Metrics these depend upon are also calculated.
+	 *                If none of them looks inside method bodies, method bodies are not parsed (see {@link #isStructureOnly()}).
+	 * @throws IllegalArgumentException If one of the metrics does not exist
+	 */
+	public CK(boolean useJars, int maxAtOnce, boolean variablesAndFields, int threads, Collection<String> metrics) {
+		MetricsFinder finder = new MetricsFinder(metrics);
 		this.classLevelMetrics = () -> finder.allClassLevelMetrics();
 		this.methodLevelMetrics = () -> finder.allMethodLevelMetrics(variablesAndFields);
+		this.structureOnly = metrics != null && MetricsFinder.onlyDeclarations(metrics);
+		this.metrics = metrics == null ? null : Collections.unmodifiableList(new ArrayList<>(metrics));
 
 		this.useJars = useJars;
+		if(threads <= 0)
+			this.threads = Runtime.getRuntime().availableProcessors();
+		else
+			this.threads = threads;
+
 		if(maxAtOnce == 0)
-			this.maxAtOnce = getMaxPartitionBasedOnMemory();
+			this.planner = PartitionPlanner.basedOnMemory(this.threads);
 		else
-			this.maxAtOnce = maxAtOnce;
+			this.planner = PartitionPlanner.basedOnFiles(maxAtOnce);
 	}
 
 	public CK() {
 		this(false, 0, true);
 	}
 
-	public void calculate(String path, CKNotifier notifier) {
+	/**
+	 * Files that did not change since they were cached are not parsed again; their results
+	 * (and their contribution to project-wide metrics) come from the cache instead.
+	 * @param cache The cache to use, or null to parse all files
+	 */
+	public void setCache(CKCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * In syntax-only mode, files are parsed without resolving bindings, and so without looking for the
+	 * source dirs and jars of the project, which is much faster. Metrics that need bindings to mean anything
+	 * (see {@link NeedsBindings}, e.g., DIT) are not calculated at all, see {@link #getUnavailableColumns()}.
+	 * Everything else falls back to the names in the code, as it does when a binding cannot be resolved:
+	 * e.g., CBO and RFC see the types and methods as they are written, not their qualified names.
+	 * @param syntaxOnly Whether bindings should not be resolved
+	 */
+	public void setSyntaxOnly(boolean syntaxOnly) {
+		this.syntaxOnly = syntaxOnly;
+	}
+
+	/**
+	 * @return The columns this CK was asked to calculate (e.g., "wmc" or "lcom*"), as they were given,
+	 *         or null for all of them
+	 */
+	public Collection<String> getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return The columns of the output (lower-cased, e.g., "dit") that this CK does not calculate, as
+	 *         their metrics need bindings and it only parses the syntax, or they need method bodies and
+	 *         it is structure-only; none if it does neither
+	 */
+	public Set<String> getUnavailableColumns() {
+		Set<String> columns = new HashSet<>();
+		if(syntaxOnly)
+			columns.addAll(MetricsFinder.columnsNeedingBindings());
+		if(structureOnly)
+			columns.addAll(MetricsFinder.columnsNeedingBodies());
+		return columns;
+	}
+
+	/**
+	 * A CK is structure-only when it was asked for metrics (e.g., the number of methods, or DIT) that are all
+	 * {@link DeclarationsOnly}, and for no column that CK calculates out of method bodies (e.g., loc). JDT then skips method bodies, which saves most of the parsing and binding work.
+	 * Columns that need method bodies are not calculated, see {@link #getUnavailableColumns()}, and classes declared
+	 * in method bodies (i.e., anonymous and local classes) are not found at all.
+	 * @return Whether method bodies are left out of the analysis
+	 */
+	public boolean isStructureOnly() {
+		return structureOnly;
+	}
+
+	public CKContext calculate(String path, CKNotifier notifier) {
 		String[] javaFiles = FileUtils.getAllJavaFiles(path);
 		log.info("Found " + javaFiles.length + " java files");
 
-		calculate(Paths.get(path), notifier,
+		return calculate(Paths.get(path), notifier,
 		 	Stream.of(javaFiles)
 				.map(Paths::get)
 				.toArray(Path[]::new)
@@ -67,59 +174,260 @@ public class CK {
 	 * Convenience method to call ck with a path rather than a string
 	 * @param path The path which contain the java class files to analyse
 	 * @param notifier Handle to process the results and handle errors
+	 * @return The context of this analysis, with the data of project-wide metrics (e.g., NOC, fan-in)
 	 */
-	public void calculate(Path path, CKNotifier notifier) {
-		calculate(path.toString(), notifier);
+	public CKContext calculate(Path path, CKNotifier notifier) {
+		return calculate(path.toString(), notifier);
 	}
 
 	/**
-	 * Calculate metrics for the passed javaFilePaths. Uses path to set the environment
+	 * Calculate metrics for the passed javaFilePaths. Uses path to set the environment:
+	 * the source roots JDT resolves types against are the ones of these files (see {@link SourceRoots}).
 	 * @param path The environment to where the source code is located
 	 * @param notifier Handle to process the results and handle errors
 	 * @param javaFilePaths The files to collect metrics of.
+	 * @return The context of this analysis, with the data of project-wide metrics (e.g., NOC, fan-in)
 	 */
-	public void calculate(Path path, CKNotifier notifier, Path... javaFilePaths) {
-		String[] srcDirs = FileUtils.getAllDirs(path.toString());
-		log.info("Found " + srcDirs.length + " src dirs");
+	public CKContext calculate(Path path, CKNotifier notifier, Path... javaFilePaths) {
+		// every run starts from scratch, so that nothing leaks from one analysis to the next
+		CKContext context = new CKContext();
 
-		String[] allDependencies = useJars ? FileUtils.getAllJars(path.toString()) : null;
+		// Converts the paths to strings and makes the method support relative paths as well.
+		List<String> strJavaFilePaths = Stream.of(javaFilePaths).map(file -> file.isAbsolute() ? file.toString() : path.resolve(file).toString()).collect(Collectors.toList());
 
-		if(useJars)
+		// without bindings, there is nothing to resolve types against
+		String[] srcDirs = syntaxOnly ? new String[0] : sourceRoots(path, strJavaFilePaths);
+		log.info("Found " + srcDirs.length + " source roots");
+
+		String[] allDependencies = useJars && !syntaxOnly ? FileUtils.getAllJars(path.toString()) : null;
+
+		if(allDependencies != null)
 			log.info("Found " + allDependencies.length + " jar dependencies");
-		
-		MetricsExecutor storage = new MetricsExecutor(classLevelMetrics, methodLevelMetrics, notifier);
 
-		// Converts the paths to strings and makes the method support relative paths as well.
-		List<String> strJavaFilePaths = Stream.of(javaFilePaths).map(file -> file.isAbsolute() ? file.toString() : path.resolve(file).toString()).collect(Collectors.toList());
+		String fingerprint = null;
+		if(cache != null) {
+			fingerprint = CKCache.fingerprint(allDependencies, metricNames());
+			strJavaFilePaths = replayCachedFiles(strJavaFilePaths, fingerprint, notifier, context);
+		}
+
+		List<List<String>> partitions = planner.plan(strJavaFilePaths);
+		if(structureOnly)
+			log.info("Only structural metrics were asked for, method bodies will not be parsed");
 
-		List<List<String>> partitions = Lists.partition(strJavaFilePaths, maxAtOnce);
-		log.debug("Max partition size: " + maxAtOnce + ", total partitions=" + partitions.size());
+		log.debug("Partitions with " + planner + ", total partitions=" + partitions.size());
+
+		// all partitions, in all threads, resolve types against the same classpath
+		try(SharedClasspath classpath = new SharedClasspath()) {
+			if(threads > 1 && partitions.size() > 1)
+				parseInParallel(partitions, srcDirs, allDependencies, classpath, notifier, context, fingerprint);
+			else
+				parseSequentially(partitions, srcDirs, allDependencies, classpath, notifier, context, fingerprint);
+		}
+
+		log.info("Finished parsing");
+		return context;
+    }
+
+	// where the packages of the files start; with a cache, only the files that changed since the last analysis are read
+	private String[] sourceRoots(Path path, List<String> javaFiles) {
+		SourceRoots sourceRoots = cache != null ? cache.loadSourceRoots() : new SourceRoots();
+
+		String[] roots = sourceRoots.infer(path.toString(), javaFiles.toArray(new String[0]));
+		if(cache != null)
+			cache.storeSourceRoots(sourceRoots);
+		return roots;
+	}
+
+	// notifies the results of the files that are in the cache, and returns the ones that still have to be parsed
+	private List<String> replayCachedFiles(List<String> files, String fingerprint, CKNotifier notifier, CKContext context) {
+		List<String> toParse = new ArrayList<>();
+
+		for(String file : files) {
+			CKCache.Entry entry = cache.load(file, fingerprint);
+			if(entry == null) {
+				toParse.add(file);
+				continue;
+			}
+
+			context.addAll(entry.getFacts());
+			for(CKClassResult result : entry.getResults()) {
+				result.setContext(context);
+				notifier.notify(result);
+			}
+		}
+
+		log.info((files.size() - toParse.size()) + " files came from the cache, " + toParse.size() + " files to parse");
+		return toParse;
+	}
+
+	private List<String> metricNames() {
+		try {
+			List<String> names = new ArrayList<>();
+			classLevelMetrics().call().forEach(metric -> names.add(metric.getClass().getName()));
+			methodLevelMetrics().call().forEach(metric -> names.add(metric.getClass().getName()));
+			// the same metrics give other results without bindings
+			if(syntaxOnly)
+				names.add("syntax-only");
+			return names;
+		} catch (Exception e) {
+			throw new RuntimeException("Could not instantiate metrics", e);
+		}
+	}
+
+	private void parseSequentially(List<List<String>> partitions, String[] srcDirs, String[] allDependencies, SharedClasspath classpath, CKNotifier notifier, CKContext context, String fingerprint) {
+		MetricsExecutor storage = new MetricsExecutor(classLevelMetrics(), methodLevelMetrics(), notifier, context, cache, fingerprint);
 
 		for(List<String> partition : partitions) {
 			log.debug("Next partition");
-			ASTParser parser = ASTParser.newParser(AST.JLS11);
-			
-			parser.setResolveBindings(true);
-			parser.setBindingsRecovery(true);
-			
-			Map<String, String> options = JavaCore.getOptions();
-			JavaCore.setComplianceOptions(JavaCore.VERSION_11, options);
-			parser.setCompilerOptions(options);
+			parse(partition, srcDirs, allDependencies, classpath, storage);
+		}
+	}
+
+	/**
+	 * Each partition goes to a worker thread with its own ASTParser, MetricsExecutor, and context.
+	 * Results of a partition are buffered and, in partition order, its context is added to the one of
+	 * the analysis and its results are handed to the notifier, from the calling thread, so that the
+	 * notifier sees exactly what a sequential run would produce. Workers never share mutable state.
+	 */
+	private void parseInParallel(List<List<String>> partitions, String[] srcDirs, String[] allDependencies, SharedClasspath classpath, CKNotifier notifier, CKContext context, String fingerprint) {
+		int poolSize = Math.min(threads, partitions.size());
+		log.debug("Parsing " + partitions.size() + " partitions with " + poolSize + " threads");
+
+		ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+		try {
+			List<Future<PartitionResults>> futures = new ArrayList<>();
+			for(List<String> partition : partitions) {
+				futures.add(pool.submit(() -> {
+					PartitionResults results = new PartitionResults(new CKContext(context));
+					parse(partition, srcDirs, allDependencies, classpath, new MetricsExecutor(classLevelMetrics(), methodLevelMetrics(), results, results.context, cache, fingerprint));
+					return results;
+				}));
+			}
+
+			for(Future<PartitionResults> future : futures) {
+				future.get().replayTo(notifier, context);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for partitions to be parsed", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Could not parse partition", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			// e.g., after a partition failed, others might still be parsed with the classpath, which is closed next
+			awaitTermination(pool);
+		}
+	}
+
+	// JDT does not stop parsing when it is interrupted, so this waits for as long as it takes
+	private static void awaitTermination(ExecutorService pool) {
+		boolean interrupted = false;
+		while(true) {
+			try {
+				if(pool.awaitTermination(1, TimeUnit.MINUTES))
+					break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Calculate metrics for source code that is not on disk, e.g., read straight from a version control system.
+	 * As there are no source dirs, types declared in other files cannot be resolved, which affects
+	 * metrics that depend on bindings (e.g., DIT and CBO).
+	 * @param sources The source code of each file, keyed by the path of the file
+	 * @param notifier Handle to process the results and handle errors
+	 * @return The context of this analysis, with the data of project-wide metrics (e.g., NOC, fan-in)
+	 */
+	public CKContext calculate(Map<String, String> sources, CKNotifier notifier) {
+		CKContext context = new CKContext();
+		MetricsExecutor storage = new MetricsExecutor(classLevelMetrics(), methodLevelMetrics(), notifier, context);
+
+		for(Map.Entry<String, String> source : sources.entrySet()) {
+			ASTParser parser = newParser();
+			if(!syntaxOnly)
+				parser.setEnvironment(null, null, null, true);
+			parser.setUnitName(source.getKey());
+			char[] content = source.getValue().toCharArray();
+			parser.setSource(content);
+
+			JDTUtils.cachingBindingNames(() ->
+					storage.acceptAST(source.getKey(), (CompilationUnit) parser.createAST(null), content));
+		}
+
+		return context;
+	}
+
+	private void parse(List<String> partition, String[] srcDirs, String[] allDependencies, SharedClasspath classpath, MetricsExecutor storage) {
+		ASTParser parser = newParser();
+		if(!syntaxOnly)
 			parser.setEnvironment(allDependencies, srcDirs, null, true);
-			parser.createASTs(partition.toArray(new String[partition.size()]), null, new String[0], storage, null);
+		JDTUtils.cachingBindingNames(() ->
+				classpath.createASTs(parser, partition.toArray(new String[partition.size()]), storage));
+	}
+
+	private ASTParser newParser() {
+		ASTParser parser = ASTParser.newParser(AST.JLS11);
+
+		parser.setResolveBindings(!syntaxOnly);
+		parser.setBindingsRecovery(!syntaxOnly);
+		parser.setIgnoreMethodBodies(structureOnly);
+
+		Map<String, String> options = JavaCore.getOptions();
+		JavaCore.setComplianceOptions(JavaCore.VERSION_11, options);
+		parser.setCompilerOptions(options);
+		return parser;
+	}
+
+	private Callable<List<ClassLevelMetric>> classLevelMetrics() {
+		return syntaxOnly ? withoutMetricsNeedingBindings(classLevelMetrics) : classLevelMetrics;
+	}
+
+	private Callable<List<MethodLevelMetric>> methodLevelMetrics() {
+		return syntaxOnly ? withoutMetricsNeedingBindings(methodLevelMetrics) : methodLevelMetrics;
+	}
+
+	private static <T> Callable<List<T>> withoutMetricsNeedingBindings(Callable<List<T>> metrics) {
+		return () -> {
+			List<T> all = new ArrayList<>(metrics.call());
+			all.removeIf(metric -> metric.getClass().isAnnotationPresent(NeedsBindings.class));
+			return all;
+		};
+	}
+
+	// keeps the notifications of a single partition, in the order they happened, and what it contributed to the analysis
+	private static class PartitionResults implements CKNotifier {
+
+		private final CKContext context;
+		private final List<BiConsumer<CKNotifier, CKContext>> notifications = new ArrayList<>();
+
+		PartitionResults(CKContext context) {
+			this.context = context;
+		}
+
+		@Override
+		public void notify(CKClassResult result) {
+			// project-wide metrics of the result come from the analysis, once all partitions are in it
+			notifications.add((target, analysis) -> {
+				result.setContext(analysis);
+				target.notify(result);
+			});
 		}
-		
-		log.info("Finished parsing");
-    }
 
-	private int getMaxPartitionBasedOnMemory() {
-		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
+		@Override
+		public void notifyError(String sourceFilePath, Exception e) {
+			notifications.add((target, analysis) -> target.notifyError(sourceFilePath, e));
+		}
 
-		if      (maxMemory >= 2000) return 400;
-		else if (maxMemory >= 1500) return 300;
-		else if (maxMemory >= 1000) return 200;
-		else if (maxMemory >=  500) return 100;
-		else                        return 25;
+		void replayTo(CKNotifier notifier, CKContext analysis) {
+			analysis.addAll(context);
+			notifications.forEach(notification -> notification.accept(notifier, analysis));
+			notifications.clear();
+		}
 	}
 
 }
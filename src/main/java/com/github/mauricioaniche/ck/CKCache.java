@@ -0,0 +1,175 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.util.SourceRoots;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * On-disk cache of the results of each file, so that unchanged files do not have to be parsed again.
+ *
+ * There is one entry per file, keyed by its path. It is only used if the content of the file did not change since
+ * it was stored, and if it was stored by an analysis with the same fingerprint (jars and metrics); otherwise, the
+ * file is parsed again, and its entry is replaced.
+ * Besides the results, an entry also keeps the coupling and hierarchy facts the file contributed
+ * to the {@link CKContext}, so that project-wide metrics (NOC, fan-in, fan-out) are still correct
+ * when only some of the files are parsed.
+ *
+ * Note that the results of a file might also depend on other files (e.g., a type that can no longer be resolved).
+ * The fingerprint covers the jars, but neither the source roots (which are inferred from the files of each run, so
+ * that a new package, or an analysis of only some files, does not throw the cache away) nor the content of other files.
+ * The cache also keeps the source roots of the project (see {@link SourceRoots}), so that they are not inferred
+ * from all files again in every run.
+ */
+public class CKCache {
+
+	// bump it whenever the serialized form of the results, or the way a metric is calculated, changes.
+	// Everything the cache serializes declares a fixed serialVersionUID, so that recompiling CK does not
+	// invalidate the entries: this is the only thing that tells an old format from a new one.
+	private static final int FORMAT_VERSION = 6;
+
+	private static Logger log = Logger.getLogger(CKCache.class);
+
+	// next to the entries, whose names are hashes
+	private static final String SOURCE_ROOTS = "source-roots.ser";
+
+	private final Path dir;
+
+	public CKCache(Path dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * @return The cached entry of the file, or null if there is none, the file changed since then, or the entry
+	 *         was stored with another fingerprint
+	 */
+	public Entry load(String sourceFilePath, String fingerprint) {
+		File entryFile = entryFile(sourceFilePath);
+		if(!entryFile.exists())
+			return null;
+
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(entryFile)))) {
+			Entry entry = (Entry) in.readObject();
+			return entry.fingerprint.equals(fingerprint) && entry.contentHash.equals(contentHash(sourceFilePath)) ? entry : null;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// a broken entry is just a miss; it gets overwritten once the file is parsed again
+			log.warn("Could not read cache entry of " + sourceFilePath, e);
+			return null;
+		}
+	}
+
+	public void store(String sourceFilePath, String fingerprint, Collection<CKClassResult> results, CKContext facts) {
+		try {
+			Files.createDirectories(dir);
+			Entry entry = new Entry(fingerprint, contentHash(sourceFilePath), new ArrayList<>(results), facts);
+
+			// write to a temporary file first, so that a concurrent or interrupted run never sees half an entry
+			File tmp = File.createTempFile("entry", ".tmp", dir.toFile());
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeObject(entry);
+			}
+			Files.move(tmp.toPath(), entryFile(sourceFilePath).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.warn("Could not store cache entry of " + sourceFilePath, e);
+		}
+	}
+
+	/**
+	 * @return The source roots of the last analysis that used this cache, or none if there was none
+	 */
+	public SourceRoots loadSourceRoots() {
+		File rootsFile = dir.resolve(SOURCE_ROOTS).toFile();
+		if(!rootsFile.exists())
+			return new SourceRoots();
+
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(rootsFile)))) {
+			return (SourceRoots) in.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// they are only inferred again
+			log.warn("Could not read the cached source roots", e);
+			return new SourceRoots();
+		}
+	}
+
+	public void storeSourceRoots(SourceRoots roots) {
+		try {
+			Files.createDirectories(dir);
+
+			File tmp = File.createTempFile("roots", ".tmp", dir.toFile());
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeObject(roots);
+			}
+			Files.move(tmp.toPath(), dir.resolve(SOURCE_ROOTS), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.warn("Could not store the source roots", e);
+		}
+	}
+
+	/**
+	 * Identifies everything, other than the file itself, that changes the results of a file.
+	 */
+	public static String fingerprint(String[] jars, List<String> metrics) {
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(FORMAT_VERSION);
+
+		if(jars != null) {
+			String[] sortedJars = jars.clone();
+			Arrays.sort(sortedJars);
+			for(String jar : sortedJars) {
+				File jarFile = new File(jar);
+				hasher.putString(jar, StandardCharsets.UTF_8).putLong(jarFile.length()).putLong(jarFile.lastModified());
+			}
+		}
+
+		for(String metric : metrics)
+			hasher.putString(metric, StandardCharsets.UTF_8).putByte((byte) 0);
+
+		return hasher.hash().toString();
+	}
+
+	// a single entry per file, so that a stale one is replaced rather than left behind
+	private File entryFile(String sourceFilePath) {
+		String key = Hashing.sha256().hashString(sourceFilePath, StandardCharsets.UTF_8).toString();
+		return dir.resolve(key + ".ser").toFile();
+	}
+
+	private static String contentHash(String sourceFilePath) throws IOException {
+		return com.google.common.io.Files.asByteSource(new File(sourceFilePath)).hash(Hashing.sha256()).toString();
+	}
+
+	public static class Entry implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final String fingerprint;
+		private final String contentHash;
+		private final List<CKClassResult> results;
+		private final CKContext facts;
+
+		Entry(String fingerprint, String contentHash, List<CKClassResult> results, CKContext facts) {
+			this.fingerprint = fingerprint;
+			this.contentHash = contentHash;
+			this.results = results;
+			this.facts = facts;
+		}
+
+		public List<CKClassResult> getResults() {
+			return results;
+		}
+
+		/**
+		 * @return What the file contributed to the project-wide metrics
+		 */
+		public CKContext getFacts() {
+			return facts;
+		}
+	}
+}
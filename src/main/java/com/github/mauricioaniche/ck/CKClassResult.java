@@ -1,12 +1,12 @@
 package com.github.mauricioaniche.ck;
 
+import java.io.Serializable;
 import java.util.*;
 
-import com.github.mauricioaniche.ck.metric.CouplingExtras;
-import com.github.mauricioaniche.ck.metric.NOCExtras;
-
-public class CKClassResult {
+public class CKClassResult implements Serializable {
+	private static final long serialVersionUID = 1L;
 
+	private transient CKContext context;
 	private String file;
 	private String className;
 	private String type;
@@ -67,14 +67,35 @@ public class CKClassResult {
 	private float looseClassCohesion;
 
 	public CKClassResult(String file, String className, String type, int modifiers) {
-		this.file = file;
-		this.className = className;
+		this(null, file, className, type, modifiers);
+	}
+
+	/**
+	 * @param context The analysis this class belongs to. Global metrics (NOC, fan-in, fan-out,
+	 *                and CBO modified) are read from it. Without a context, they are 0.
+	 */
+	public CKClassResult(CKContext context, String file, String className, String type, int modifiers) {
+		this.context = context;
+		this.file = context == null ? file : context.intern(file);
+		this.className = context == null ? className : context.intern(className);
 		this.type = type;
 		this.methods = new HashSet<>();
 		this.visibleMethods= new HashSet<>();
 		this.modifiers = modifiers;
 	}
 
+	CKContext getContext() {
+		return context;
+	}
+
+	// results that come back from the cache have to be attached to the analysis they are part of
+	void setContext(CKContext context) {
+		this.context = context;
+		this.file = context.intern(file);
+		this.className = context.intern(className);
+		this.methods.forEach(method -> method.setContext(context));
+	}
+
 	/**
 	 * public/static/private and other org.eclipse.jdt.core.dom.Modifier modifiers
 	 * 
@@ -99,8 +120,7 @@ public class CKClassResult {
 
 	public int getNoc(){
 		if (this.noc == -1){
-			NOCExtras extras = NOCExtras.getInstance();
-			this.setNoc(extras.getNocValueByName(this.className));
+			this.setNoc(context == null ? 0 : context.getNocExtras().getNocValueByName(this.className));
 		}
 			
 		return this.noc;
@@ -132,8 +152,7 @@ public class CKClassResult {
 	
 	public int getCboModified() {
 		if(this.cboModified == -1){
-			CouplingExtras extras = CouplingExtras.getInstance();
-			this.setCboModified(extras.getValueCBOClass(this.className));
+			this.setCboModified(context == null ? 0 : context.getCouplingExtras().getValueCBOClass(this.className));
 		}
 		return cboModified;
 	}
@@ -145,8 +164,7 @@ public class CKClassResult {
 	public int getFanin() {
 		
 		if(this.fanin == -1){
-			CouplingExtras extras = CouplingExtras.getInstance();
-			this.setFanin(extras.getValueFanInClass(this.className));
+			this.setFanin(context == null ? 0 : context.getCouplingExtras().getValueFanInClass(this.className));
 		}
 		
 		return fanin;
@@ -159,8 +177,7 @@ public class CKClassResult {
 	public int getFanout() {
 		
 		if(this.fanout == -1){
-			CouplingExtras extras = CouplingExtras.getInstance();
-			this.setFanout(extras.getValueFanOutClass(this.className));
+			this.setFanout(context == null ? 0 : context.getCouplingExtras().getValueFanOutClass(this.className));
 		}
 		
 		return fanout;
@@ -0,0 +1,76 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.CouplingExtras;
+import com.github.mauricioaniche.ck.metric.NOCExtras;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State that belongs to a single analysis (i.e., one call to {@link CK#calculate}).
+ * Metrics that depend on the entire project, such as NOC, fan-in, and fan-out,
+ * accumulate their data here while files are visited. Partitions parsed in parallel accumulate theirs in
+ * contexts of their own, which are added to the one of the analysis as each partition is done.
+ */
+public class CKContext implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final CouplingExtras couplingExtras;
+	private final NOCExtras nocExtras;
+
+	// the single copy of each name (of files, classes, methods, fields, ...) that results keep
+	private transient Map<String, String> names;
+
+	public CKContext() {
+		this(new ConcurrentHashMap<>());
+	}
+
+	/**
+	 * A context for the facts of a part of the given analysis (a partition, or a single file), that shares its names
+	 */
+	CKContext(CKContext analysis) {
+		this(analysis.names);
+	}
+
+	private CKContext(Map<String, String> names) {
+		this.couplingExtras = new CouplingExtras();
+		this.nocExtras = new NOCExtras();
+		this.names = names;
+	}
+
+	/**
+	 * @return The copy of the given name that is shared by the whole analysis
+	 */
+	public String intern(String name) {
+		if(name == null)
+			return null;
+
+		String existing = names.putIfAbsent(name, name);
+		return existing == null ? name : existing;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.names = new ConcurrentHashMap<>();
+	}
+
+	public CouplingExtras getCouplingExtras() {
+		return couplingExtras;
+	}
+
+	public NOCExtras getNocExtras() {
+		return nocExtras;
+	}
+
+	/**
+	 * Adds everything another context has seen to this one.
+	 * Used to bring the facts of a partition, or of a single file (e.g., from the cache), into the analysis.
+	 */
+	public void addAll(CKContext other) {
+		this.couplingExtras.addAll(other.couplingExtras);
+		this.nocExtras.addAll(other.nocExtras);
+	}
+}
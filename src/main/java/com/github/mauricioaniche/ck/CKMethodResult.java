@@ -1,12 +1,14 @@
 package com.github.mauricioaniche.ck;
 
+import com.github.mauricioaniche.ck.util.ObjectIntMap;
 import org.eclipse.jdt.core.dom.Modifier;
 
-import com.github.mauricioaniche.ck.metric.CouplingExtras;
-
+import java.io.Serializable;
 import java.util.*;
 
-public class CKMethodResult {
+public class CKMethodResult implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private transient CKContext context;
 	private int cbo;
 	private int cboModified = -1;
 	private int fanin = -1;
@@ -20,7 +22,7 @@ public class CKMethodResult {
 	private int returnQty;
 	private int loc;
 	private int variablesQty;
-	private Map<String, Integer> variablesUsage;
+	private ObjectIntMap<String> variablesUsage;
 	private int startLine;
 	private int loopQty;
 	private int comparisonsQty;
@@ -36,7 +38,7 @@ public class CKMethodResult {
 	private int lambdasQty;
 	private int uniqueWordsQty;
 	//all local field accesses
-	private Map<String, Integer> fieldUsage;
+	private ObjectIntMap<String> fieldUsage;
 	private boolean isConstructor;
 	private int modifiers;
 	private int logStatementsQty;
@@ -50,13 +52,28 @@ public class CKMethodResult {
 	private Map<String, Set<String>> methodInvocationsIndirectLocal;
 
 	public CKMethodResult(String methodName, String qualifiedMethodName, boolean isConstructor, int modifiers) {
-		this.methodName = methodName;
-		this.qualifiedMethodName = qualifiedMethodName;
+		this(null, methodName, qualifiedMethodName, isConstructor, modifiers);
+	}
+
+	/**
+	 * @param context The analysis this method belongs to. Global metrics (fan-in, fan-out,
+	 *                and CBO modified) are read from it. Without a context, they are 0.
+	 */
+	public CKMethodResult(CKContext context, String methodName, String qualifiedMethodName, boolean isConstructor, int modifiers) {
+		this.context = context;
+		this.methodName = context == null ? methodName : context.intern(methodName);
+		this.qualifiedMethodName = context == null ? qualifiedMethodName : context.intern(qualifiedMethodName);
 		this.isConstructor = isConstructor;
 		this.modifiers = modifiers;
 		this.isVisible = !Modifier.isPrivate(modifiers);
 	}
 
+	void setContext(CKContext context) {
+		this.context = context;
+		this.methodName = context.intern(methodName);
+		this.qualifiedMethodName = context.intern(qualifiedMethodName);
+	}
+
 	/**
 	 * public/static/private and other org.eclipse.jdt.core.dom.Modifier modifiers
 	 *
@@ -79,8 +96,7 @@ public class CKMethodResult {
 	
 	public int getCboModified() {
 		if(this.cboModified == -1){
-			CouplingExtras extras = CouplingExtras.getInstance();
-			this.setCboModified(extras.getValueCBOMethod(this.qualifiedMethodName));
+			this.setCboModified(context == null ? 0 : context.getCouplingExtras().getValueCBOMethod(this.qualifiedMethodName));
 		}
 		return cboModified;
 	}
@@ -91,8 +107,7 @@ public class CKMethodResult {
 	
 	public int getFanin() {
 		if(this.fanin == -1){
-			CouplingExtras extras = CouplingExtras.getInstance();
-			this.setFanin(extras.getValueFanInMethod(this.qualifiedMethodName));
+			this.setFanin(context == null ? 0 : context.getCouplingExtras().getValueFanInMethod(this.qualifiedMethodName));
 		}
 		return fanin;
 	}
@@ -103,8 +118,7 @@ public class CKMethodResult {
 	
 	public int getFanout() {
 		if(this.fanout == -1){
-			CouplingExtras extras = CouplingExtras.getInstance();
-			this.setFanout(extras.getValueFanOutMethod(this.qualifiedMethodName));
+			this.setFanout(context == null ? 0 : context.getCouplingExtras().getValueFanOutMethod(this.qualifiedMethodName));
 		}
 		return fanout;
 	}
@@ -179,15 +193,15 @@ public class CKMethodResult {
 		return returnQty;
 	}
 
-	public void setVariablesUsage(Map<String, Integer> variablesUsage) {
+	public void setVariablesUsage(ObjectIntMap<String> variablesUsage) {
 		this.variablesUsage = variablesUsage;
 	}
 
 	public Map<String, Integer> getVariablesUsage() {
 		if(this.variablesUsage==null)
-			this.variablesUsage = new HashMap<>();
+			this.variablesUsage = new ObjectIntMap<>();
 
-		return variablesUsage;
+		return variablesUsage.asMap();
 	}
 
 	public void setStartLine(int startLine) {
@@ -302,22 +316,19 @@ public class CKMethodResult {
 		return uniqueWordsQty;
 	}
 
-	public void setFieldUsage(Map<String, Integer> fieldUsage) {
+	public void setFieldUsage(ObjectIntMap<String> fieldUsage) {
 		this.fieldUsage = fieldUsage;
 	}
 
 	public Map<String, Integer> getFieldUsage() {
 		if(this.fieldUsage==null)
-			fieldUsage = new HashMap<>();
+			fieldUsage = new ObjectIntMap<>();
 
-		return fieldUsage;
+		return fieldUsage.asMap();
 	}
 
 	public Set<String> getFieldsAccessed() {
-		if(this.fieldUsage==null)
-			fieldUsage = new HashMap<>();
-
-		return fieldUsage.keySet();
+		return getFieldUsage().keySet();
 	}
 
 	public boolean isConstructor() {
@@ -356,6 +367,9 @@ public class CKMethodResult {
 	}
 
 	public Set<String> getMethodInvocationsLocal() {
+		if(methodInvocationsLocal==null)
+			methodInvocationsLocal = new HashSet<>();
+
 		return methodInvocationsLocal;
 	}
 
@@ -364,6 +378,9 @@ public class CKMethodResult {
 	}
 
 	public Map<String, Set<String>> getMethodInvocationsIndirectLocal() {
+		if(methodInvocationsIndirectLocal==null)
+			methodInvocationsIndirectLocal = new HashMap<>();
+
 		return methodInvocationsIndirectLocal;
 	}
 
@@ -1,8 +1,12 @@
 package com.github.mauricioaniche.ck;
 
+import com.github.mauricioaniche.ck.metric.AccessAwareMetric;
+import com.github.mauricioaniche.ck.metric.AggregatableMetric;
 import com.github.mauricioaniche.ck.metric.CKASTVisitor;
 import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
+import com.github.mauricioaniche.ck.metric.ContextAwareMetric;
 import com.github.mauricioaniche.ck.metric.MethodLevelMetric;
+import com.github.mauricioaniche.ck.util.CodeLines;
 import com.github.mauricioaniche.ck.util.JDTUtils;
 import org.eclipse.jdt.core.dom.*;
 
@@ -20,36 +24,74 @@ public class CKVisitor extends ASTVisitor {
 	private int anonymousNumber;
 	private int initializerNumber;
 
-	class MethodInTheStack {
+	static class MethodInTheStack {
 		CKMethodResult result;
 		List<MethodLevelMetric> methodLevelMetrics;
+		MetricDispatch dispatch;
 	}
 
-	class ClassInTheStack {
+	static class ClassInTheStack {
 		CKClassResult result;
 		List<ClassLevelMetric> classLevelMetrics;
+		MetricDispatch dispatch;
+		// the metrics that visit the nodes inside methods, i.e., all but the aggregated ones
+		MetricDispatch bodyDispatch;
+		List<AggregatableMetric> aggregatedMetrics;
+		// whether any metric reads the accesses of the class; if none does, they are not indexed
+		boolean readsAccesses;
+		AccessIndex accesses;
 		Stack<MethodInTheStack> methods;
 
 
 		ClassInTheStack() {
 			methods = new Stack<>();
 		}
+
+		MetricDispatch dispatch() {
+			return methods.isEmpty() ? dispatch : bodyDispatch;
+		}
 	}
 	private Stack<ClassInTheStack> classes;
 
 	private Set<CKClassResult> collectedClasses;
+	// names given to local classes that have no binding, see className()
+	private Set<String> localClassNames;
 
 	private CompilationUnit cu;
-	private Callable<List<ClassLevelMetric>> classLevelMetrics;
-	private Callable<List<MethodLevelMetric>> methodLevelMetrics;
+	// null when the source of the file is not available
+	private CodeLines codeLines;
+	private CKContext context;
+	private MetricPool pool;
 
 	public CKVisitor(String sourceFilePath, CompilationUnit cu, Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics) {
+		this(sourceFilePath, cu, new CKContext(), classLevelMetrics, methodLevelMetrics);
+	}
+
+	public CKVisitor(String sourceFilePath, CompilationUnit cu, CKContext context, Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics) {
+		this(sourceFilePath, cu, null, context, classLevelMetrics, methodLevelMetrics);
+	}
+
+	/**
+	 * @param source The source code the compilation unit was parsed from, used to count lines of code.
+	 *               If null, lines are counted in the code JDT generates for each node, without comments.
+	 */
+	public CKVisitor(String sourceFilePath, CompilationUnit cu, char[] source, CKContext context, Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics) {
+		this(sourceFilePath, cu, source, context, new MetricPool(classLevelMetrics, methodLevelMetrics));
+	}
+
+	/**
+	 * @param pool Where the metrics of each class and method come from, and go back to once the visitor is
+	 *             done with them. It can be shared with the visitors of other files of the same thread.
+	 */
+	CKVisitor(String sourceFilePath, CompilationUnit cu, char[] source, CKContext context, MetricPool pool) {
 		this.sourceFilePath = sourceFilePath;
+		this.codeLines = source == null ? null : new CodeLines(cu, source);
+		this.context = context;
 		this.cu = cu;
-		this.classLevelMetrics = classLevelMetrics;
-		this.methodLevelMetrics = methodLevelMetrics;
+		this.pool = pool;
 		this.classes = new Stack<>();
 		this.collectedClasses = new HashSet<>();
+		this.localClassNames = new HashSet<>();
 	}
 
 	@Override
@@ -58,35 +100,31 @@ public class CKVisitor extends ASTVisitor {
 
 		// build a CKClassResult based on the current type
 		// declaration we are visiting
-		String className = binding != null ? binding.getBinaryName() : node.getName().getFullyQualifiedName();
+		String className = context.intern(className(node, binding));
 		String type = getTypeOfTheUnit(node);
 		int modifiers = node.getModifiers();
-		CKClassResult currentClass = new CKClassResult(sourceFilePath, className, type, modifiers);
-		currentClass.setLoc(calculate(node.toString()));
+		CKClassResult currentClass = new CKClassResult(context, sourceFilePath, className, type, modifiers);
+		currentClass.setLoc(loc(node));
 		
 		// there might be metrics that use it
 		// (even before a class is declared)
 		if(!classes.isEmpty()) {			
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if (!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 				
 		}
 
-		// create a set of visitors, just for the current class
-		List<ClassLevelMetric> classLevelMetrics = instantiateClassLevelMetricVisitors(className);
-
-		// store everything in a 'class in the stack' data structure
-		ClassInTheStack classInTheStack = new ClassInTheStack();
-		classInTheStack.result = currentClass;
-		classInTheStack.classLevelMetrics = classLevelMetrics;
+		// take a set of visitors, just for the current class,
+		// and store everything in a 'class in the stack' data structure
+		ClassInTheStack classInTheStack = classInTheStack(currentClass);
 
 		// push it to the stack, so we know the current class we are visiting
 		classes.push(classInTheStack);
 
 		// there might be class level metrics that use the TypeDeclaration
 		// so, let's run them
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 
 		return true;
 	}
@@ -96,7 +134,7 @@ public class CKVisitor extends ASTVisitor {
 	public void endVisit(TypeDeclaration node) {
 
 		// let's first visit any metrics that might make use of this endVisit
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 
 		ClassInTheStack completedClass = classes.pop();
 
@@ -106,35 +144,38 @@ public class CKVisitor extends ASTVisitor {
 		// we are done processing this class, so now let's
 		// store it in the collected classes set
 		collectedClasses.add(completedClass.result);
+
+		// and its visitors can measure the next class
+		pool.release(completedClass);
 	}
 
 	public boolean visit(MethodDeclaration node) {
 
 		IMethodBinding binding = node.resolveBinding();
-		String currentMethodName = JDTUtils.getMethodFullName(node);
-		String currentQualifiedMethodName = JDTUtils.getQualifiedMethodFullName(node);
+		// names are shared by the results and the metrics of the whole analysis
+		String currentMethodName = context.intern(JDTUtils.getMethodFullName(node));
+		String currentQualifiedMethodName = context.intern(JDTUtils.getQualifiedMethodFullName(node));
 		boolean isConstructor = node.isConstructor();
 		
 		String className = ((currentQualifiedMethodName.lastIndexOf(currentMethodName) - 1) > 0) ? currentQualifiedMethodName.substring(0, (currentQualifiedMethodName.lastIndexOf(currentMethodName) - 1)) : "";
 
-		CKMethodResult currentMethod = new CKMethodResult(currentMethodName, currentQualifiedMethodName, isConstructor, node.getModifiers());
-		currentMethod.setLoc(calculate(node.toString()));
+		CKMethodResult currentMethod = new CKMethodResult(context, currentMethodName, currentQualifiedMethodName, isConstructor, node.getModifiers());
+		currentMethod.setLoc(loc(node));
 		currentMethod.setStartLine(JDTUtils.getStartLine(cu, node));
 
-		// let's instantiate method level visitors for this current method
-		List<MethodLevelMetric> methodLevelMetrics = instantiateMethodLevelMetricVisitors(currentQualifiedMethodName);
+		// let's take method level visitors for this current method
+		AccessIndex accesses = classes.peek().accesses;
+		MethodInTheStack methodInTheStack = methodInTheStack(currentMethod, currentQualifiedMethodName,
+				accesses == null ? null : accesses.startMethod(node, currentMethodName));
 
 		// we add it to the current class we are visiting
-		MethodInTheStack methodInTheStack = new MethodInTheStack();
-		methodInTheStack.result = currentMethod;
-		methodInTheStack.methodLevelMetrics = methodLevelMetrics;
 		classes.peek().methods.push(methodInTheStack);
 
 		// and there might be metrics that also use the methoddeclaration node.
 		// so, let's call them
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 
 		return true;
 	}
@@ -143,58 +184,59 @@ public class CKVisitor extends ASTVisitor {
 	public void endVisit(MethodDeclaration node) {
 
 		// let's first invoke the metrics, because they might use this node
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
-		classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
+		for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 
 		// remove the method from the stack
 		MethodInTheStack completedMethod = classes.peek().methods.pop();
+		if(classes.peek().accesses != null)
+			classes.peek().accesses.endMethod();
 
 		// persist the data of the visitors in the CKMethodResult
 		completedMethod.methodLevelMetrics.forEach(m -> m.setResult(completedMethod.result));
 
+		// and add it to the metrics of the class that are aggregated from its methods
+		classes.peek().aggregatedMetrics.forEach(m -> m.addMethod(completedMethod.result));
+
 		// store its final version in the current class
 		classes.peek().result.addMethod(completedMethod.result);
+
+		// and its visitors can measure the next method
+		pool.release(completedMethod);
 	}
 
 
 	public boolean visit(AnonymousClassDeclaration node) {
-		java.util.List<String> stringList = new java.util.ArrayList<>();
-		stringList = stringList.stream().map(string -> string.toString()).collect(java.util.stream.Collectors.toList());
-
 		// there might be metrics that use it
 		// (even before an anonymous class is created)
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 
 		// we give the anonymous class a 'class$AnonymousN' name
-		String anonClassName = classes.peek().result.getClassName() + "$Anonymous" + ++anonymousNumber;
-		CKClassResult currentClass = new CKClassResult(sourceFilePath, anonClassName, "anonymous", -1);
-		currentClass.setLoc(calculate(node.toString()));
+		String anonClassName = context.intern(classes.peek().result.getClassName() + "$Anonymous" + ++anonymousNumber);
+		CKClassResult currentClass = new CKClassResult(context, sourceFilePath, anonClassName, "anonymous", -1);
+		currentClass.setLoc(loc(node));
 
-		// create a set of visitors, just for the current class
-		List<ClassLevelMetric> classLevelMetrics = instantiateClassLevelMetricVisitors(anonClassName);
-
-		// store everything in a 'class in the stack' data structure
-		ClassInTheStack classInTheStack = new ClassInTheStack();
-		classInTheStack.result = currentClass;
-		classInTheStack.classLevelMetrics = classLevelMetrics;
+		// take a set of visitors, just for the current class,
+		// and store everything in a 'class in the stack' data structure
+		ClassInTheStack classInTheStack = classInTheStack(currentClass);
 
 		// push it to the stack, so we know the current class we are visiting
 		classes.push(classInTheStack);
 
 		// and there might be metrics that also use the methoddeclaration node.
 		// so, let's call them
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 
 		return true;
 	}
 
 	public void endVisit(AnonymousClassDeclaration node) {
 
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 
 		ClassInTheStack completedClass = classes.pop();
 
@@ -204,6 +246,9 @@ public class CKVisitor extends ASTVisitor {
 		// we are done processing this class, so now let's
 		// store it in the collected classes set
 		collectedClasses.add(completedClass.result);
+
+		// and its visitors can measure the next class
+		pool.release(completedClass);
 	}
 
 	// static blocks
@@ -211,24 +256,23 @@ public class CKVisitor extends ASTVisitor {
 
 		String currentMethodName = "(initializer " + (++initializerNumber) + ")";
 
-		CKMethodResult currentMethod = new CKMethodResult(currentMethodName, currentMethodName, false, node.getModifiers());
-		currentMethod.setLoc(calculate(node.toString()));
+		CKMethodResult currentMethod = new CKMethodResult(context, currentMethodName, currentMethodName, false, node.getModifiers());
+		currentMethod.setLoc(loc(node));
 		currentMethod.setStartLine(JDTUtils.getStartLine(cu, node));
 
-		// let's instantiate method level visitors for this current method
-		List<MethodLevelMetric> methodLevelMetrics = instantiateMethodLevelMetricVisitors(currentMethodName);
+		// let's take method level visitors for this current method
+		AccessIndex accesses = classes.peek().accesses;
+		MethodInTheStack methodInTheStack = methodInTheStack(currentMethod, currentMethodName,
+				accesses == null ? null : accesses.startInitializer(currentMethodName));
 
 		// we add it to the current class we are visiting
-		MethodInTheStack methodInTheStack = new MethodInTheStack();
-		methodInTheStack.result = currentMethod;
-		methodInTheStack.methodLevelMetrics = methodLevelMetrics;
 		classes.peek().methods.push(methodInTheStack);
 
 		// and there might be metrics that also use the methoddeclaration node.
 		// so, let's call them
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 
 		return true;
 	}
@@ -237,53 +281,79 @@ public class CKVisitor extends ASTVisitor {
 	public void endVisit(Initializer node) {
 
 		// let's first invoke the metrics, because they might use this node
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
-		classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
+		for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 
 		// remove the method from the stack
 		MethodInTheStack completedMethod = classes.peek().methods.pop();
+		if(classes.peek().accesses != null)
+			classes.peek().accesses.endMethod();
 
 		// persist the data of the visitors in the CKMethodResult
 		completedMethod.methodLevelMetrics.forEach(m -> m.setResult(completedMethod.result));
 
+		// and add it to the metrics of the class that are aggregated from its methods
+		classes.peek().aggregatedMetrics.forEach(m -> m.addMethod(completedMethod.result));
+
 		// store its final version in the current class
 		classes.peek().result.addMethod(completedMethod.result);
+
+		// and its visitors can measure the next method
+		pool.release(completedMethod);
 	}
 
 
+	// without a binding (e.g., when only the syntax is parsed), the name is built like JDT builds binary names,
+	// from the package and the classes it is declared in (anonymous classes keep the names CK gives them)
+	private String className(AbstractTypeDeclaration node, ITypeBinding binding) {
+		if(binding != null)
+			return binding.getBinaryName();
+
+		String name = node.getName().getIdentifier();
+		if(node.isMemberTypeDeclaration() && !classes.isEmpty())
+			return classes.peek().result.getClassName() + "$" + name;
+		if(node.isLocalTypeDeclaration() && !classes.isEmpty()) {
+			// the first of class$1Name, class$2Name, ... that is not taken yet
+			for(int i = 1; ; i++) {
+				String localName = classes.peek().result.getClassName() + "$" + i + name;
+				if(localClassNames.add(localName))
+					return localName;
+			}
+		}
+		if(node.isPackageMemberTypeDeclaration() && cu.getPackage() != null)
+			return cu.getPackage().getName().getFullyQualifiedName() + "." + name;
+		return name;
+	}
+
 	public boolean visit(EnumDeclaration node) {
 		ITypeBinding binding = node.resolveBinding();
 
 		// there might be metrics that use it
 		// (even before a enum is declared)
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if (!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 
 		// build a CKClassResult based on the current type
 		// declaration we are visiting
-		String className = binding != null ? binding.getBinaryName() : node.getName().getFullyQualifiedName();
+		String className = context.intern(className(node, binding));
 		String type = "enum";
 		int modifiers = node.getModifiers();
-		CKClassResult currentClass = new CKClassResult(sourceFilePath, className, type, modifiers);
-		currentClass.setLoc(calculate(node.toString()));
-
-		// create a set of visitors, just for the current class
-		List<ClassLevelMetric> classLevelMetrics = instantiateClassLevelMetricVisitors(className);
+		CKClassResult currentClass = new CKClassResult(context, sourceFilePath, className, type, modifiers);
+		currentClass.setLoc(loc(node));
 
-		// store everything in a 'class in the stack' data structure
-		ClassInTheStack classInTheStack = new ClassInTheStack();
-		classInTheStack.result = currentClass;
-		classInTheStack.classLevelMetrics = classLevelMetrics;
+		// take a set of visitors, just for the current class,
+		// and store everything in a 'class in the stack' data structure
+		ClassInTheStack classInTheStack = classInTheStack(currentClass);
 
 		// push it to the stack, so we know the current class we are visiting
 		classes.push(classInTheStack);
 
 		// there might be class level metrics that use the TypeDeclaration
 		// so, let's run them
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 
 		return true;
 
@@ -292,7 +362,7 @@ public class CKVisitor extends ASTVisitor {
 	@Override
 	public void endVisit(EnumDeclaration node) {
 		// let's first visit any metrics that might make use of this endVisit
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 
 		ClassInTheStack completedClass = classes.pop();
 
@@ -302,28 +372,41 @@ public class CKVisitor extends ASTVisitor {
 		// we are done processing this class, so now let's
 		// store it in the collected classes set
 		collectedClasses.add(completedClass.result);
+
+		// and its visitors can measure the next class
+		pool.release(completedClass);
 	}
 
-	private List<ClassLevelMetric> instantiateClassLevelMetricVisitors(String className) {
-		try {
-			List<ClassLevelMetric> classes = classLevelMetrics.call();
-			classes.forEach(c -> { c.setClassName(className); });
-			return classes;
-//			return classLevelMetrics.call();
-		} catch(Exception e) {
-			throw new RuntimeException("Could not instantiate class level visitors", e);
+	// the visitors might have measured another class before, so they are told which class they measure now
+	private ClassInTheStack classInTheStack(CKClassResult result) {
+		ClassInTheStack classInTheStack = pool.classInTheStack();
+		classInTheStack.result = result;
+
+		// the fields and variables accessed in a class are only indexed if there are metrics that read them
+		classInTheStack.accesses = classInTheStack.readsAccesses ? new AccessIndex(context) : null;
+
+		for(ClassLevelMetric metric : classInTheStack.classLevelMetrics) {
+			metric.setClassName(result.getClassName());
+			if(metric instanceof ContextAwareMetric)
+				((ContextAwareMetric) metric).setContext(context);
+			if(metric instanceof AccessAwareMetric && classInTheStack.accesses != null)
+				((AccessAwareMetric) metric).setAccesses(classInTheStack.accesses);
 		}
+		return classInTheStack;
 	}
 
-	private List<MethodLevelMetric> instantiateMethodLevelMetricVisitors(String methodName) {
-		try {
-			List<MethodLevelMetric> methods = methodLevelMetrics.call();
-			methods.forEach(m -> { m.setMethodName(methodName); });
-			return methods;
-//			return methodLevelMetrics.call();
-		} catch(Exception e) {
-			throw new RuntimeException("Could not instantiate method level visitors", e);
+	private MethodInTheStack methodInTheStack(CKMethodResult result, String methodName, AccessIndex.MethodAccesses accesses) {
+		MethodInTheStack methodInTheStack = pool.methodInTheStack();
+		methodInTheStack.result = result;
+
+		for(MethodLevelMetric metric : methodInTheStack.methodLevelMetrics) {
+			metric.setMethodName(methodName);
+			if(metric instanceof ContextAwareMetric)
+				((ContextAwareMetric) metric).setContext(context);
+			if(metric instanceof AccessAwareMetric && accesses != null)
+				((AccessAwareMetric) metric).setAccesses(accesses);
 		}
+		return methodInTheStack;
 	}
 
 	public Set<CKClassResult> getCollectedClasses() {
@@ -338,9 +421,9 @@ public class CKVisitor extends ASTVisitor {
 	// From here, just delegating the calls to the metrics
 	public boolean visit(AnnotationTypeDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -348,9 +431,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(AnnotationTypeMemberDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -358,9 +441,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ArrayAccess node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -368,9 +451,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ArrayCreation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -378,9 +461,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ArrayInitializer node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -388,9 +471,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ArrayType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -398,9 +481,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(AssertStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -408,9 +491,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(Assignment node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -418,9 +501,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(Block node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -428,9 +511,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(BlockComment node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -438,9 +521,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(BooleanLiteral node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -448,9 +531,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(BreakStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -458,9 +541,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(CastExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -468,9 +551,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(CatchClause node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -478,9 +561,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(CharacterLiteral node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -488,9 +571,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ClassInstanceCreation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -498,18 +581,18 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(CompilationUnit node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 	}
 
 	public boolean visit(ConditionalExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -517,9 +600,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ConstructorInvocation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -527,9 +610,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ContinueStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -537,9 +620,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(CreationReference node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -547,9 +630,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(Dimension node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -557,9 +640,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(DoStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -567,9 +650,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(EmptyStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -577,9 +660,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(EnhancedForStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -587,9 +670,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(EnumConstantDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -597,9 +680,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ExpressionMethodReference node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -607,9 +690,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ExpressionStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -617,9 +700,12 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(FieldAccess node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.visit(node);
+
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -627,9 +713,12 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(FieldDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.visit(node);
+
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -637,9 +726,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ForStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -647,9 +736,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(IfStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -657,9 +746,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ImportDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -667,9 +756,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(InfixExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -677,9 +766,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(InstanceofExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -687,9 +776,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(IntersectionType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -697,9 +786,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(LabeledStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -707,9 +796,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(LambdaExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -717,9 +806,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(LineComment node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -727,9 +816,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(MarkerAnnotation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -737,9 +826,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(MemberRef node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -747,9 +836,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(MemberValuePair node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -757,9 +846,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(MethodRef node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -767,9 +856,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(MethodRefParameter node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -777,9 +866,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(MethodInvocation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -787,9 +876,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(Modifier node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -797,9 +886,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(NameQualifiedType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -807,9 +896,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(NormalAnnotation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -817,9 +906,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(NullLiteral node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -827,9 +916,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(NumberLiteral node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -837,9 +926,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(PackageDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -847,9 +936,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ParameterizedType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -857,9 +946,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ParenthesizedExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -867,9 +956,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(PostfixExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -877,9 +966,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(PrefixExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -887,9 +976,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(PrimitiveType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -897,9 +986,12 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(QualifiedName node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.visit(node);
+
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -907,9 +999,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(QualifiedType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -917,9 +1009,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ReturnStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -927,9 +1019,12 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SimpleName node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.visit(node);
+
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -937,9 +1032,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SimpleType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -947,9 +1042,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SingleMemberAnnotation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -957,9 +1052,12 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SingleVariableDeclaration node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.visit(node);
+
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -967,9 +1065,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(StringLiteral node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -977,9 +1075,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SuperConstructorInvocation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -987,9 +1085,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SuperFieldAccess node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -997,9 +1095,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SuperMethodInvocation node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1007,9 +1105,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SuperMethodReference node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1017,9 +1115,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SwitchCase node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1027,9 +1125,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SwitchStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1037,9 +1135,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(SynchronizedStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1047,9 +1145,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TagElement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1057,9 +1155,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TextElement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1067,9 +1165,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ThisExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1077,9 +1175,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(ThrowStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1087,9 +1185,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TryStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1097,9 +1195,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TypeDeclarationStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1107,9 +1205,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TypeLiteral node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1117,9 +1215,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TypeMethodReference node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1127,9 +1225,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(TypeParameter node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1137,9 +1235,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(UnionType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1147,9 +1245,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(VariableDeclarationExpression node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1157,9 +1255,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(VariableDeclarationStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1167,9 +1265,12 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(VariableDeclarationFragment node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.visit(node);
+
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1177,9 +1278,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(WhileStatement node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1187,9 +1288,9 @@ public class CKVisitor extends ASTVisitor {
 
 	public boolean visit(WildcardType node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1199,9 +1300,9 @@ public class CKVisitor extends ASTVisitor {
 	// TODO: understand what happens with a javadoc in a class. Will the TypeDeclaration come first?
 	public boolean visit(Javadoc node) {
 		if(!classes.isEmpty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().visitorsOf(node)) ast.visit(node);
 			if(!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.visit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.visitorsOf(node)) ast.visit(node);
 		}
 		return true;
 
@@ -1212,87 +1313,95 @@ public class CKVisitor extends ASTVisitor {
 
 	@Override
 	public void endVisit(Block node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	@Override
 	public void endVisit(FieldAccess node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
+		if(classes.peek().accesses != null)
+			classes.peek().accesses.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	@Override
 	public void endVisit(ConditionalExpression node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(ForStatement node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(EnhancedForStatement node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(DoStatement node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(WhileStatement node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(SwitchCase node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(IfStatement node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(SwitchStatement node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(CatchClause node) {
-		classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+		for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 		if(!classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 
 	public void endVisit(Javadoc node) {
 		if(!classes.empty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
 			if (!classes.peek().methods.isEmpty())
-				classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+				for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 		}
 	}
 
 	public void endVisit(QualifiedName node) {
 		if(!classes.empty()) {
-			classes.peek().classLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().dispatch().endVisitorsOf(node)) ast.endVisit(node);
+			if(classes.peek().accesses != null)
+				classes.peek().accesses.endVisit(node);
 		}
 		if(!classes.isEmpty() && !classes.peek().methods.isEmpty())
-			classes.peek().methods.peek().methodLevelMetrics.stream().map(metric -> (CKASTVisitor) metric).forEach(ast -> ast.endVisit(node));
+			for(CKASTVisitor ast : classes.peek().methods.peek().dispatch.endVisitorsOf(node)) ast.endVisit(node);
 	}
 	// TODO: add all other endVisit blocks
-}
\ No newline at end of file
+
+	private int loc(ASTNode node) {
+		return codeLines != null ? codeLines.count(node) : calculate(node.toString());
+	}
+}
@@ -0,0 +1,121 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.CKASTVisitor;
+import org.eclipse.jdt.core.dom.ASTNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells, for each type of AST node, which metrics of a class (or method) want to visit it.
+ *
+ * A metric subscribes to a node type by overriding the corresponding visit/endVisit default
+ * of {@link CKASTVisitor}. Which defaults a metric class overrides is found out (via reflection)
+ * only once per metric class; afterwards, dispatching a node is just an array lookup by its node type.
+ */
+class MetricDispatch {
+
+	private static final CKASTVisitor[] NONE = new CKASTVisitor[0];
+	private static final int[] NO_INDEXES = new int[0];
+
+	// node classes, indexed by their ASTNode node type (null for types that do not exist)
+	private static final Class<?>[] NODE_CLASSES = nodeClasses();
+
+	// per metric class, which node types it visits and end-visits
+	private static final Map<Class<?>, boolean[][]> SUBSCRIPTIONS = new ConcurrentHashMap<>();
+
+	// per list of metric classes (it is the same list for every class, and for every method),
+	// the positions of the metrics that visit and end-visit each node type
+	private static final Map<List<Class<?>>, int[][][]> LAYOUTS = new ConcurrentHashMap<>();
+
+	private final CKASTVisitor[][] visitors;
+	private final CKASTVisitor[][] endVisitors;
+
+	MetricDispatch(List<?> metrics) {
+		List<Class<?>> metricClasses = new ArrayList<>(metrics.size());
+		for (Object metric : metrics)
+			metricClasses.add(metric.getClass());
+
+		int[][][] layout = LAYOUTS.computeIfAbsent(metricClasses, MetricDispatch::layoutOf);
+		this.visitors = subscribers(metrics, layout[0]);
+		this.endVisitors = subscribers(metrics, layout[1]);
+	}
+
+	private static CKASTVisitor[][] subscribers(List<?> metrics, int[][] indexes) {
+		CKASTVisitor[][] subscribers = new CKASTVisitor[indexes.length][];
+		for (int nodeType = 0; nodeType < indexes.length; nodeType++) {
+			if (indexes[nodeType].length == 0) {
+				subscribers[nodeType] = NONE;
+				continue;
+			}
+
+			subscribers[nodeType] = new CKASTVisitor[indexes[nodeType].length];
+			for (int i = 0; i < indexes[nodeType].length; i++)
+				subscribers[nodeType][i] = (CKASTVisitor) metrics.get(indexes[nodeType][i]);
+		}
+		return subscribers;
+	}
+
+	private static int[][][] layoutOf(List<Class<?>> metricClasses) {
+		int[][][] layout = new int[2][NODE_CLASSES.length][];
+		for (int kind = 0; kind < 2; kind++) {
+			for (int nodeType = 0; nodeType < NODE_CLASSES.length; nodeType++) {
+				// metrics keep their order, as some metrics depend on others
+				List<Integer> indexes = new ArrayList<>();
+				for (int i = 0; i < metricClasses.size(); i++) {
+					if (subscriptionsOf(metricClasses.get(i))[kind][nodeType])
+						indexes.add(i);
+				}
+				layout[kind][nodeType] = indexes.isEmpty() ? NO_INDEXES : indexes.stream().mapToInt(Integer::intValue).toArray();
+			}
+		}
+		return layout;
+	}
+
+	CKASTVisitor[] visitorsOf(ASTNode node) {
+		return visitors[node.getNodeType()];
+	}
+
+	CKASTVisitor[] endVisitorsOf(ASTNode node) {
+		return endVisitors[node.getNodeType()];
+	}
+
+	private static boolean[][] subscriptionsOf(Class<?> metricClass) {
+		return SUBSCRIPTIONS.computeIfAbsent(metricClass, clazz -> new boolean[][] {
+				overrides(clazz, "visit"),
+				overrides(clazz, "endVisit")
+		});
+	}
+
+	private static boolean[] overrides(Class<?> metricClass, String methodName) {
+		boolean[] overridden = new boolean[NODE_CLASSES.length];
+		for (int nodeType = 0; nodeType < NODE_CLASSES.length; nodeType++) {
+			if (NODE_CLASSES[nodeType] == null)
+				continue;
+
+			try {
+				overridden[nodeType] = metricClass.getMethod(methodName, NODE_CLASSES[nodeType]).getDeclaringClass() != CKASTVisitor.class;
+			} catch (NoSuchMethodException e) {
+				// CKASTVisitor has no method for this node type, so no metric can visit it
+			}
+		}
+		return overridden;
+	}
+
+	private static Class<?>[] nodeClasses() {
+		List<Class<?>> classes = new ArrayList<>();
+		classes.add(null); // there is no node type 0
+
+		// node types are consecutive numbers, starting at 1
+		for (int nodeType = 1; ; nodeType++) {
+			try {
+				classes.add(ASTNode.nodeClassForType(nodeType));
+			} catch (IllegalArgumentException e) {
+				break;
+			}
+		}
+		return classes.toArray(new Class<?>[0]);
+	}
+}
@@ -0,0 +1,133 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.CKVisitor.ClassInTheStack;
+import com.github.mauricioaniche.ck.CKVisitor.MethodInTheStack;
+import com.github.mauricioaniche.ck.metric.AccessAwareMetric;
+import com.github.mauricioaniche.ck.metric.AggregatableMetric;
+import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
+import com.github.mauricioaniche.ck.metric.MethodLevelMetric;
+import com.github.mauricioaniche.ck.metric.ResettableMetric;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Instantiates the metrics of each class (and method) the visitor finds, and takes them back once the
+ * visitor is done with it, so that the next class reuses them (see {@link ResettableMetric})
+ * instead of instantiating all metrics again. The pool only grows up to as many classes (and methods)
+ * as were ever nested in each other.
+ *
+ * Not thread-safe: each {@link MetricsExecutor}, and so each thread, has its own.
+ */
+class MetricPool {
+
+	private final Callable<List<ClassLevelMetric>> classLevelMetrics;
+	private final Callable<List<MethodLevelMetric>> methodLevelMetrics;
+	// classes of the method level metrics, found out when the first class is instantiated
+	private Set<Class<?>> methodLevelMetricClasses;
+
+	// classes and methods whose metrics were reset, ready to be reused
+	private final Deque<ClassInTheStack> classes = new ArrayDeque<>();
+	private final Deque<MethodInTheStack> methods = new ArrayDeque<>();
+
+	MetricPool(Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics) {
+		this.classLevelMetrics = classLevelMetrics;
+		this.methodLevelMetrics = methodLevelMetrics;
+	}
+
+	ClassInTheStack classInTheStack() {
+		ClassInTheStack classInTheStack = classes.poll();
+		if(classInTheStack != null)
+			return classInTheStack;
+
+		classInTheStack = new ClassInTheStack();
+		classInTheStack.classLevelMetrics = instantiateClassLevelMetricVisitors();
+		classInTheStack.dispatch = new MetricDispatch(classInTheStack.classLevelMetrics);
+		aggregate(classInTheStack);
+		classInTheStack.readsAccesses = methodLevelMetricClasses().stream().anyMatch(AccessAwareMetric.class::isAssignableFrom)
+				|| classInTheStack.classLevelMetrics.stream().anyMatch(m -> m instanceof AccessAwareMetric);
+		return classInTheStack;
+	}
+
+	MethodInTheStack methodInTheStack() {
+		MethodInTheStack methodInTheStack = methods.poll();
+		if(methodInTheStack != null)
+			return methodInTheStack;
+
+		methodInTheStack = new MethodInTheStack();
+		methodInTheStack.methodLevelMetrics = instantiateMethodLevelMetricVisitors();
+		methodInTheStack.dispatch = new MetricDispatch(methodInTheStack.methodLevelMetrics);
+		return methodInTheStack;
+	}
+
+	/**
+	 * The class is done, and its results are already in its {@link CKClassResult}.
+	 * Its metrics are only reused if all of them can be reset.
+	 */
+	void release(ClassInTheStack completedClass) {
+		boolean reset = true;
+		for(ClassLevelMetric metric : completedClass.classLevelMetrics)
+			reset &= metric.reset();
+
+		if(reset) {
+			completedClass.result = null;
+			completedClass.accesses = null;
+			classes.push(completedClass);
+		}
+	}
+
+	/**
+	 * The method is done, and its results are already in its {@link CKMethodResult}.
+	 * Its metrics are only reused if all of them can be reset.
+	 */
+	void release(MethodInTheStack completedMethod) {
+		boolean reset = true;
+		for(MethodLevelMetric metric : completedMethod.methodLevelMetrics)
+			reset &= metric.reset();
+
+		if(reset) {
+			completedMethod.result = null;
+			methods.push(completedMethod);
+		}
+	}
+
+	// class level metrics that are also computed for every method of the class are aggregated from them,
+	// and so they do not need to visit the nodes inside the methods a second time
+	private void aggregate(ClassInTheStack classInTheStack) {
+		List<ClassLevelMetric> bodyMetrics = new ArrayList<>(classInTheStack.classLevelMetrics.size());
+		List<AggregatableMetric> aggregatedMetrics = new ArrayList<>();
+		for(ClassLevelMetric metric : classInTheStack.classLevelMetrics) {
+			if(metric instanceof AggregatableMetric && methodLevelMetricClasses().contains(metric.getClass()))
+				aggregatedMetrics.add((AggregatableMetric) metric);
+			else
+				bodyMetrics.add(metric);
+		}
+
+		classInTheStack.aggregatedMetrics = aggregatedMetrics;
+		classInTheStack.bodyDispatch = aggregatedMetrics.isEmpty() ? classInTheStack.dispatch : new MetricDispatch(bodyMetrics);
+	}
+
+	private Set<Class<?>> methodLevelMetricClasses() {
+		if(methodLevelMetricClasses == null) {
+			methodLevelMetricClasses = new HashSet<>();
+			instantiateMethodLevelMetricVisitors().forEach(m -> methodLevelMetricClasses.add(m.getClass()));
+		}
+		return methodLevelMetricClasses;
+	}
+
+	private List<ClassLevelMetric> instantiateClassLevelMetricVisitors() {
+		try {
+			return classLevelMetrics.call();
+		} catch(Exception e) {
+			throw new RuntimeException("Could not instantiate class level visitors", e);
+		}
+	}
+
+	private List<MethodLevelMetric> instantiateMethodLevelMetricVisitors() {
+		try {
+			return methodLevelMetrics.call();
+		} catch(Exception e) {
+			throw new RuntimeException("Could not instantiate method level visitors", e);
+		}
+	}
+}
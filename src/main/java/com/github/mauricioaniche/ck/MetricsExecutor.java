@@ -6,21 +6,43 @@ import org.apache.log4j.Logger;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.FileASTRequestor;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
 public class MetricsExecutor extends FileASTRequestor {
 
-	private Callable<List<ClassLevelMetric>> classLevelMetrics;
-	private Callable<List<MethodLevelMetric>> methodLevelMetrics;
+	// the metrics are reused from one file to the next
+	private MetricPool pool;
 	private CKNotifier notifier;
+	private CKContext context;
+	private CKCache cache;
+	private String fingerprint;
 
 	private static Logger log = Logger.getLogger(MetricsExecutor.class);
 	
 	public MetricsExecutor(Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics, CKNotifier notifier) {
-		this.classLevelMetrics = classLevelMetrics;
-		this.methodLevelMetrics = methodLevelMetrics;
+		this(classLevelMetrics, methodLevelMetrics, notifier, new CKContext());
+	}
+
+	public MetricsExecutor(Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics, CKNotifier notifier, CKContext context) {
+		this(classLevelMetrics, methodLevelMetrics, notifier, context, null, null);
+	}
+
+	/**
+	 * @param cache Where the results of each file are stored, together with the facts it contributed to the context.
+	 *              Null if results should not be cached.
+	 * @param fingerprint The fingerprint of the analysis, see {@link CKCache#fingerprint}
+	 */
+	public MetricsExecutor(Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics, CKNotifier notifier, CKContext context, CKCache cache, String fingerprint) {
+		this.context = context;
+		this.cache = cache;
+		this.fingerprint = fingerprint;
+		this.pool = new MetricPool(classLevelMetrics, methodLevelMetrics);
 		this.notifier = notifier;
 	}
 
@@ -28,14 +50,28 @@ public class MetricsExecutor extends FileASTRequestor {
 	@Override
 	public void acceptAST(String sourceFilePath, 
 			CompilationUnit cu) {
-		
+		acceptAST(sourceFilePath, cu, read(sourceFilePath));
+	}
+
+	/**
+	 * @param source The source code the compilation unit was parsed from, or null if it is not available
+	 */
+	public void acceptAST(String sourceFilePath, CompilationUnit cu, char[] source) {
 		try {
 			log.info("Processing: " + sourceFilePath);
-			CKVisitor visitor = new CKVisitor(sourceFilePath, cu, classLevelMetrics, methodLevelMetrics);
+			// when caching, the facts of this file are collected apart, so that they can be stored with its results
+			CKContext fileContext = cache == null ? context : new CKContext(context);
+			CKVisitor visitor = new CKVisitor(sourceFilePath, cu, source, fileContext, pool);
 
 			cu.accept(visitor);
 			Set<CKClassResult> collectedClasses = visitor.getCollectedClasses();
 
+			if(cache != null) {
+				cache.store(sourceFilePath, fingerprint, collectedClasses, fileContext);
+				context.addAll(fileContext);
+				collectedClasses.forEach(collectedClass -> collectedClass.setContext(context));
+			}
+
 			for (CKClassResult collectedClass : collectedClasses) {
 				log.info(collectedClass);
 				notifier.notify(collectedClass);
@@ -45,5 +81,14 @@ public class MetricsExecutor extends FileASTRequestor {
 			notifier.notifyError(sourceFilePath, e);
 		}
 	}
-	
+
+	// JDT reads the files it parses with the default charset, so offsets in the tree match this content
+	private char[] read(String sourceFilePath) {
+		try {
+			return new String(Files.readAllBytes(Paths.get(sourceFilePath)), Charset.defaultCharset()).toCharArray();
+		} catch (IOException e) {
+			log.warn("Could not read " + sourceFilePath + ", lines of code are counted in the parsed tree instead", e);
+			return null;
+		}
+	}
 }
@@ -0,0 +1,114 @@
+package com.github.mauricioaniche.ck;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Splits the files to parse into the partitions that JDT parses at once.
+ *
+ * What JDT keeps in memory while parsing a partition grows with the size of its files, not with their
+ * number, so partitions are filled up to a budget of bytes on disk. Files of the same directory (i.e., of
+ * the same package) go to the same partition whenever they fit in one, and directories are visited in
+ * path order, so that neighbouring packages of a source root also tend to share a partition. This way,
+ * types of a package are resolved by JDT once per partition, instead of once in each of many partitions.
+ */
+class PartitionPlanner {
+
+	// rough amount of heap JDT needs, with bindings, per byte of source code in a partition
+	static final int HEAP_PER_SOURCE_BYTE = 1000;
+	static final long MIN_BYTES = 64 * 1024;
+
+	private final long maxBytes;
+	private final int maxFiles;
+
+	/**
+	 * @param maxBytes Max size, on disk, of the files of a partition
+	 * @param maxFiles Max number of files of a partition
+	 */
+	PartitionPlanner(long maxBytes, int maxFiles) {
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+	}
+
+	/**
+	 * Partitions as large as the heap of this JVM allows
+	 * @param threads Number of partitions parsed at the same time, which share the heap
+	 */
+	static PartitionPlanner basedOnMemory(int threads) {
+		return basedOnMemory(Runtime.getRuntime().maxMemory(), threads);
+	}
+
+	static PartitionPlanner basedOnMemory(long maxMemory, int threads) {
+		return new PartitionPlanner(Math.max(MIN_BYTES, maxMemory / HEAP_PER_SOURCE_BYTE / threads), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Partitions of at most the given number of files, whatever their size
+	 */
+	static PartitionPlanner basedOnFiles(int maxFiles) {
+		return new PartitionPlanner(Long.MAX_VALUE, maxFiles);
+	}
+
+	List<List<String>> plan(List<String> files) {
+		// files per directory, in the order they were given
+		Map<String, List<String>> directories = new TreeMap<>();
+		for (String file : files)
+			directories.computeIfAbsent(directoryOf(file), dir -> new ArrayList<>()).add(file);
+
+		List<List<String>> partitions = new ArrayList<>();
+		List<String> current = new ArrayList<>();
+		long currentBytes = 0;
+
+		for (List<String> directory : directories.values()) {
+			long[] sizes = new long[directory.size()];
+			long directoryBytes = 0;
+			for (int i = 0; i < sizes.length; i++) {
+				sizes[i] = new File(directory.get(i)).length();
+				directoryBytes += sizes[i];
+			}
+
+			// a directory that does not fit in what is left, but fits in a partition of its own, is not split
+			if (!current.isEmpty() && !fits(current.size() + directory.size(), currentBytes + directoryBytes)
+					&& fits(directory.size(), directoryBytes)) {
+				partitions.add(current);
+				current = new ArrayList<>();
+				currentBytes = 0;
+			}
+
+			for (int i = 0; i < sizes.length; i++) {
+				// a file larger than the budget still gets a partition, alone
+				if (!current.isEmpty() && !fits(current.size() + 1, currentBytes + sizes[i])) {
+					partitions.add(current);
+					current = new ArrayList<>();
+					currentBytes = 0;
+				}
+
+				current.add(directory.get(i));
+				currentBytes += sizes[i];
+			}
+		}
+
+		if (!current.isEmpty())
+			partitions.add(current);
+
+		return partitions;
+	}
+
+	private boolean fits(int files, long bytes) {
+		return files <= maxFiles && bytes <= maxBytes;
+	}
+
+	private static String directoryOf(String file) {
+		String parent = new File(file).getParent();
+		return parent == null ? "" : parent;
+	}
+
+	@Override
+	public String toString() {
+		return "max " + (maxBytes == Long.MAX_VALUE ? "unlimited" : maxBytes) + " bytes, "
+				+ (maxFiles == Integer.MAX_VALUE ? "unlimited" : maxFiles) + " files per partition";
+	}
+}
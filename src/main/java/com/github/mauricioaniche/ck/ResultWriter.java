@@ -1,18 +1,51 @@
 package com.github.mauricioaniche.ck;
 
 import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
 
 import com.github.mauricioaniche.ck.metric.CouplingExtras;
 import com.github.mauricioaniche.ck.metric.CouplingExtras.CouplingClassification;
+import com.github.mauricioaniche.ck.util.MetricsFinder;
 
+import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * Writes the results of an analysis in two phases, so that results do not have to be kept
+ * in memory until the end of the analysis:
+ *
+ * 1. {@link #printResult(CKClassResult)} writes a class and its methods as soon as its file is processed.
+ *    Project-wide metrics (NOC, fan-in, fan-out, and CBO modified) are not known yet, so these rows go to
+ *    temporary files with these columns left empty.
+ * 2. {@link #flushAndClose(CKContext)} copies the temporary files to the final ones, filling the
+ *    project-wide columns with the data accumulated in the {@link CKContext} of the analysis.
+ */
 public class ResultWriter {
 
+    private static final String PENDING_SUFFIX = ".pending";
+
+    // columns that can only be filled once all files were visited
+    private static final int CLASS_CBO_MODIFIED = 4;
+    private static final int CLASS_FANIN = 5;
+    private static final int CLASS_FANOUT = 6;
+    private static final int CLASS_NOC = 9;
+    private static final int METHOD_CBO_MODIFIED = 6;
+    private static final int METHOD_FANIN = 7;
+    private static final int METHOD_FANOUT = 8;
+
     private static final String[] CLASS_HEADER = {
             "file",
             "class",
@@ -111,12 +144,25 @@ public class ResultWriter {
             "hasJavaDoc" };
                           
     private static final String[] VAR_FIELD_HEADER = { "file", "class", "method", "variable", "usage" };
+
+    // columns that identify a row, and that are always written
+    private static final int CLASS_IDENTITY_COLUMNS = 3;
+    private static final int METHOD_IDENTITY_COLUMNS = 5;
+
     private final boolean variablesAndFields;
+    // lower-cased names of the columns to write, or null for all of them
+    private final Set<String> metrics;
+    // lower-cased names of the columns whose metrics were not calculated
+    private Set<String> unavailable = Collections.emptySet();
 
+    private final String classFile;
+    private final String methodFile;
     private CSVPrinter classPrinter;
     private CSVPrinter methodPrinter;
     private CSVPrinter variablePrinter;
     private CSVPrinter fieldPrinter;
+    // the analysis of the printed results, for the overloads that are not given one
+    private CKContext printedContext;
 
     /**
      * Initialise a new ResultWriter that writes to the specified files. Begins by
@@ -129,10 +175,33 @@ public class ResultWriter {
      * @throws IOException If headers cannot be written
      */
     public ResultWriter(String classFile, String methodFile, String variableFile, String fieldFile, boolean variablesAndFields) throws IOException {
-        FileWriter classOut = new FileWriter(classFile);
-        this.classPrinter = new CSVPrinter(classOut, CSVFormat.DEFAULT.withHeader(CLASS_HEADER));
-        FileWriter methodOut = new FileWriter(methodFile);
-        this.methodPrinter = new CSVPrinter(methodOut, CSVFormat.DEFAULT.withHeader(METHOD_HEADER));
+        this(classFile, methodFile, variableFile, fieldFile, variablesAndFields, null);
+    }
+
+    /**
+     * Initialise a new ResultWriter that only writes some of the metrics to the class and method files.
+     * Columns that identify a class (or a method) are always written.
+     *
+     * @param metrics The names of the columns to write (e.g., "wmc" or "lcom*"), or null for all of them
+     * @throws IllegalArgumentException If one of the metrics does not exist
+     */
+    public ResultWriter(String classFile, String methodFile, String variableFile, String fieldFile, boolean variablesAndFields,
+                        Collection<String> metrics) throws IOException {
+        // fails before any file is created
+        if(metrics != null)
+            MetricsFinder.metricsFor(metrics);
+        this.metrics = metrics == null ? null : metrics.stream()
+                .map(MetricsFinder::canonicalColumn)
+                .collect(Collectors.toSet());
+
+        this.classFile = classFile;
+        this.methodFile = methodFile;
+
+        // class and method rows are completed in the second phase, see flushAndClose(CKContext)
+        FileWriter classOut = new FileWriter(classFile + PENDING_SUFFIX);
+        this.classPrinter = new CSVPrinter(classOut, CSVFormat.DEFAULT);
+        FileWriter methodOut = new FileWriter(methodFile + PENDING_SUFFIX);
+        this.methodPrinter = new CSVPrinter(methodOut, CSVFormat.DEFAULT);
 
         this.variablesAndFields = variablesAndFields;
         if(variablesAndFields) {
@@ -143,14 +212,29 @@ public class ResultWriter {
         }
     }
 
+    /**
+     * Columns whose metrics were not calculated (see {@link CK#getUnavailableColumns()}) are still written,
+     * but empty, rather than with the 0 their metrics have in the results.
+     *
+     * @param columns The names of the columns (e.g., "dit"), case insensitive
+     */
+    public void setUnavailableColumns(Collection<String> columns) {
+        this.unavailable = columns.stream()
+                .map(MetricsFinder::canonicalColumn)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Print results for a single class and its methods and fields to the
-     * appropriate CSVPrinters.
+     * appropriate CSVPrinters. Project-wide metrics are only written by {@link #flushAndClose(CKContext)},
+     * so this method can be called as soon as the class is notified, even before the analysis is over.
      * 
      * @param result The CKClassResult
      * @throws IOException If output files cannot be written to
      */
     public void printResult(CKClassResult result) throws IOException {
+        if(result.getContext() != null)
+            this.printedContext = result.getContext();
 
         this.classPrinter.printRecord(
                 result.getFile(),
@@ -159,12 +243,12 @@ public class ResultWriter {
 
                 /* OO Metrics */
                 result.getCbo(),
-                result.getCboModified(),
-                result.getFanin(),
-                result.getFanout(),
+                null, // cboModified
+                null, // fanin
+                null, // fanout
                 result.getWmc(),
                 result.getDit(),
-                result.getNoc(),
+                null, // noc
                 result.getRfc(),
                 result.getLcom(),
                 result.getLcomNormalized(),
@@ -222,9 +306,9 @@ public class ResultWriter {
                     method.isConstructor(),
                     method.getStartLine(), 
                     method.getCbo(), 
-                    method.getCboModified(), 
-                    method.getFanin(), 
-                    method.getFanout(), 
+                    null, // cboModified
+                    null, // fanin
+                    null, // fanout
                     method.getWmc(), 
                     method.getRfc(), 
                     method.getLoc(),
@@ -249,7 +333,9 @@ public class ResultWriter {
                     method.getUniqueWordsQty(), 
                     method.getModifiers(), 
                     method.getLogStatementsQty(), 
-                    method.getHasJavadoc());
+                    method.getHasJavadoc(),
+                    // only in the pending file: the key to find its project-wide metrics later
+                    method.getQualifiedMethodName());
 
             if(variablesAndFields) {
                 for (Map.Entry<String, Integer> entry : method.getVariablesUsage().entrySet()) {
@@ -265,10 +351,18 @@ public class ResultWriter {
         }
     }
 
-    public void printCouplingCategories() throws IOException{
+    /**
+     * Same as {@link #printCouplingCategories(CKContext)}, with the analysis the printed results belong to.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public void printCouplingCategories() throws IOException {
+        printCouplingCategories(printedContext());
+    }
+
+    public void printCouplingCategories(CKContext context) throws IOException{
         FileWriter file = new FileWriter("CouplingClassification.txt");
-        CouplingExtras extras = CouplingExtras.getInstance();
-        Map<String, Map<String, Set<CouplingClassification>>> map = extras.getClassCouplingCategories();
+        Map<String, Map<String, Set<CouplingClassification>>> map = context.getCouplingExtras().getClassCouplingCategories();
         
         for (String key : map.keySet()){
             for (String clazz : map.get(key).keySet()){
@@ -285,14 +379,30 @@ public class ResultWriter {
     /**
      * Flush and close resources that were opened to write results. This method
      * should be called after all CKClassResults have been calculated and printed.
+     * It fills in the project-wide metrics of all the printed classes and methods.
      * 
+     * @param context The context of the analysis that produced the printed results
      * @throws IOException If the resources cannot be closed
      */
-    public void flushAndClose() throws IOException {
+    public void flushAndClose(CKContext context) throws IOException {
         this.classPrinter.flush();
         this.classPrinter.close();
         this.methodPrinter.flush();
         this.methodPrinter.close();
+
+        CouplingExtras coupling = context.getCouplingExtras();
+        complete(classFile, CLASS_HEADER, CLASS_IDENTITY_COLUMNS, false, (row, className) -> {
+            row.set(CLASS_CBO_MODIFIED, coupling.getValueCBOClass(className));
+            row.set(CLASS_FANIN, coupling.getValueFanInClass(className));
+            row.set(CLASS_FANOUT, coupling.getValueFanOutClass(className));
+            row.set(CLASS_NOC, context.getNocExtras().getNocValueByName(className));
+        });
+        complete(methodFile, METHOD_HEADER, METHOD_IDENTITY_COLUMNS, true, (row, methodName) -> {
+            row.set(METHOD_CBO_MODIFIED, coupling.getValueCBOMethod(methodName));
+            row.set(METHOD_FANIN, coupling.getValueFanInMethod(methodName));
+            row.set(METHOD_FANOUT, coupling.getValueFanOutMethod(methodName));
+        });
+
         if(variablesAndFields) {
             this.variablePrinter.flush();
             this.variablePrinter.close();
@@ -300,4 +410,78 @@ public class ResultWriter {
             this.fieldPrinter.close();
         }
     }
+
+    /**
+     * Same as {@link #flushAndClose(CKContext)}, with the analysis the printed results belong to,
+     * for callers that do not keep the context {@link CK} returns. If no result was printed
+     * with a context, project-wide metrics are 0.
+     *
+     * @throws IOException If the resources cannot be closed
+     */
+    public void flushAndClose() throws IOException {
+        flushAndClose(printedContext());
+    }
+
+    private CKContext printedContext() {
+        return printedContext == null ? new CKContext() : printedContext;
+    }
+
+    private interface RowCompleter {
+        void complete(List<Object> row, String key);
+    }
+
+    // second phase: streams the pending file into the final one, one row at a time
+    private void complete(String file, String[] header, int identityColumns, boolean keyInLastColumn, RowCompleter completer) throws IOException {
+        File pending = new File(file + PENDING_SUFFIX);
+        int[] columns = selectedColumns(header, identityColumns);
+        int[] unavailableColumns = unavailableColumns(header);
+
+        try (Reader in = new FileReader(pending);
+             CSVParser parser = CSVFormat.DEFAULT.parse(in);
+             CSVPrinter printer = new CSVPrinter(new FileWriter(file), CSVFormat.DEFAULT.withHeader(project(Arrays.asList(header), columns).toArray(new String[0])))) {
+
+            for (CSVRecord record : parser) {
+                List<Object> row = new ArrayList<>(record.size());
+                record.forEach(row::add);
+
+                // method rows carry their qualified name as an extra column; class rows use the class column
+                String key = keyInLastColumn ? (String) row.remove(row.size() - 1) : record.get(1);
+                completer.complete(row, key);
+                for (int column : unavailableColumns)
+                    row.set(column, null);
+                printer.printRecord(project(row, columns));
+            }
+        }
+
+        pending.delete();
+    }
+
+    // positions of the columns to write; pending files always have all of them
+    private int[] selectedColumns(String[] header, int identityColumns) {
+        List<Integer> columns = new ArrayList<>();
+        for (int i = 0; i < header.length; i++) {
+            if (i < identityColumns || metrics == null || metrics.contains(MetricsFinder.canonicalColumn(header[i])))
+                columns.add(i);
+        }
+        return columns.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int[] unavailableColumns(String[] header) {
+        List<Integer> columns = new ArrayList<>();
+        for (int i = 0; i < header.length; i++) {
+            if (unavailable.contains(MetricsFinder.canonicalColumn(header[i])))
+                columns.add(i);
+        }
+        return columns.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <T> List<T> project(List<T> row, int[] columns) {
+        if (columns.length == row.size())
+            return row;
+
+        List<T> projected = new ArrayList<>(columns.length);
+        for (int column : columns)
+            projected.add(row.get(column));
+        return projected;
+    }
 }
@@ -1,20 +1,53 @@
 package com.github.mauricioaniche.ck;
 
+import com.github.mauricioaniche.ck.git.GitDiff;
+import com.github.mauricioaniche.ck.git.GitDiffResult;
+import com.github.mauricioaniche.ck.git.GitHistory;
+import com.github.mauricioaniche.ck.git.HistoryWriter;
 import com.github.mauricioaniche.ck.util.FileUtils;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class Runner {
 
 	public static void main(String[] args) throws IOException {
 
 		if (args == null || args.length < 1) {
-			System.out.println("Usage java -jar ck.jar <path to project> <use Jars=true|false> <max files per partition, 0=automatic selection> <print variables and fields metrics? True|False> <path to save the output files>");
+			System.out.println("Usage java -jar ck.jar <path to project> <use Jars=true|false> <max files per partition, 0=automatic selection> <print variables and fields metrics? True|False> <path to save the output files> [ignored directories...] [--threads=<number of threads, 0=one per processor>] [--cache=<directory of the incremental cache>] [--diff=<old revision>..<new revision>] [--history=[<first revision>]..<last revision>] [--metrics=<comma-separated metrics, e.g. wmc,cbo,loc>] [--syntax-only]");
 			System.exit(1);
 		}
 
+		// options (--name=value) can appear anywhere; everything else is positional
+		int threads = 1;
+		String cacheDir = null;
+		String diff = null;
+		String history = null;
+		List<String> metrics = null;
+		boolean syntaxOnly = false;
+		List<String> positional = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--threads="))
+				threads = Integer.parseInt(arg.substring("--threads=".length()));
+			else if (arg.startsWith("--cache="))
+				cacheDir = arg.substring("--cache=".length());
+			else if (arg.startsWith("--diff="))
+				diff = arg.substring("--diff=".length());
+			else if (arg.startsWith("--history="))
+				history = arg.substring("--history=".length());
+			else if (arg.startsWith("--metrics="))
+				metrics = Arrays.asList(arg.substring("--metrics=".length()).split(","));
+			else if (arg.equals("--syntax-only"))
+				syntaxOnly = true;
+			else
+				positional.add(arg);
+		}
+		args = positional.toArray(new String[0]);
+
 		String path = args[0];
 
 		// use jars?
@@ -43,17 +76,40 @@ public class Runner {
       FileUtils.IGNORED_DIRECTORIES.add(args[i]);
     }
 
-		ResultWriter writer = new ResultWriter(outputDir + "class.csv", outputDir + "method.csv", outputDir + "variable.csv", outputDir + "field.csv", variablesAndFields);
-		
-		Map<String, CKClassResult> results = new HashMap<>();
-		
-		new CK(useJars, maxAtOnce, variablesAndFields).calculate(path, new CKNotifier() {
+		CK ck = new CK(useJars, maxAtOnce, variablesAndFields, threads, metrics);
+		if (cacheDir != null)
+			ck.setCache(new CKCache(Paths.get(cacheDir)));
+		// much faster, but without the metrics that need bindings, e.g. dit
+		ck.setSyntaxOnly(syntaxOnly);
+
+		if (history != null) {
+			// metric deltas of each commit, read straight from the git object database
+			String[] revisions = revisionRange(history);
+			if (revisions == null) {
+				System.out.println("Usage --history=[<first revision>]..<last revision>, e.g. --history=..HEAD");
+				System.exit(1);
+			}
+			GitHistory gitHistory = new GitHistory(ck);
+			HistoryWriter historyWriter = new HistoryWriter(outputDir + "history.csv", gitHistory.getColumns());
+			gitHistory.calculate(Paths.get(path), revisions[0].isEmpty() ? null : revisions[0], revisions[1], historyWriter);
+			historyWriter.flushAndClose();
+			System.out.println("History extracted!!!");
+			return;
+		}
+
+		ResultWriter writer = new ResultWriter(outputDir + "class.csv", outputDir + "method.csv", outputDir + "variable.csv", outputDir + "field.csv", variablesAndFields, metrics);
+		writer.setUnavailableColumns(ck.getUnavailableColumns());
+
+		CKNotifier notifier = new CKNotifier() {
 			@Override
 			public void notify(CKClassResult result) {
-				
-				// Store the metrics values from each component of the project in a HashMap
-				results.put(result.getClassName(), result);
-				
+				// Write the metrics of each component as soon as it is ready;
+				// project-wide metrics are filled in when the writer is closed
+				try {
+					writer.printResult(result);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
 			}
 
 			@Override
@@ -61,15 +117,36 @@ public class Runner {
 				System.err.println("Error in " + sourceFilePath);
 				e.printStackTrace(System.err);
 			}
-		});
-		
-		// Write the metrics value of each component in the csv files
-		for(Map.Entry<String, CKClassResult> entry : results.entrySet()){
-			writer.printResult(entry.getValue());
+		};
+
+		CKContext context;
+		if (diff != null) {
+			// only the files that changed between the two revisions are analyzed
+			String[] revisions = revisionRange(diff);
+			if (revisions == null || revisions[0].isEmpty()) {
+				System.out.println("Usage --diff=<old revision>..<new revision>, e.g. --diff=origin/main..HEAD");
+				System.exit(1);
+			}
+			GitDiffResult result = new GitDiff(ck).calculate(Paths.get(path), revisions[0], revisions[1], notifier);
+			context = result.getContext();
+
+			System.out.println("Added classes: " + result.getAddedClasses());
+			System.out.println("Removed classes: " + result.getRemovedClasses());
+			System.out.println("Changed classes: " + result.getChangedClasses());
+		} else {
+			context = ck.calculate(path, notifier);
 		}
-		
-		writer.flushAndClose();
-        writer.printCouplingCategories();
+
+		writer.flushAndClose(context);
+		writer.printCouplingCategories(context);
 		System.out.println("Metrics extracted!!!");
 	}
+
+	// FROM..TO, where only FROM can be empty; null if it is not a range
+	private static String[] revisionRange(String range) {
+		String[] revisions = range.split("\\.\\.", 2);
+		if (revisions.length < 2 || revisions[1].isEmpty())
+			return null;
+		return revisions;
+	}
 }
@@ -0,0 +1,184 @@
+package com.github.mauricioaniche.ck;
+
+import org.apache.log4j.Logger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
+
+import java.io.Closeable;
+import java.io.File;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The classpath JDT resolves bindings against (the JDK, and the source dirs and jars of the project),
+ * built once for all the partitions of an analysis.
+ *
+ * {@link ASTParser#setEnvironment} makes JDT build its classpath again for every partition it parses: it opens
+ * every jar again and, as soon as it looks for a package, goes over all entries of all jars to find out which
+ * packages each of them has. With hundreds of jars and partitions, that is most of the time spent parsing.
+ * Here, the jars of the classpath stay open, together with the packages JDT found in them, until the analysis
+ * is over (see {@link #close()}).
+ *
+ * JDT has no API for that, so this class relies on its internals (the classpath {@link ASTParser} builds, and
+ * the resolver it hands it to). If they are not there, partitions are parsed as {@link ASTParser} parses them.
+ * As the entries of a classpath are not thread-safe, each partition borrows a classpath that no other partition
+ * is using, which is only built when there is none (i.e., once per thread).
+ */
+class SharedClasspath implements Closeable {
+
+	private static Logger log = Logger.getLogger(SharedClasspath.class);
+
+	// what ASTParser#createASTs uses; getClasspath is null if this version of JDT does not have them all
+	private static Method getClasspath;
+	private static Method resolve;
+	private static Field apiLevel;
+	private static Field compilerOptions;
+	private static Field bits;
+	static {
+		try {
+			getClasspath = accessible(ASTParser.class.getDeclaredMethod("getClasspath"));
+			resolve = accessible(Class.forName("org.eclipse.jdt.core.dom.CompilationUnitResolver").getDeclaredMethod("resolve",
+					String[].class, String[].class, String[].class, FileASTRequestor.class, int.class, Map.class, List.class, int.class,
+					IProgressMonitor.class));
+			apiLevel = accessible(ASTParser.class.getDeclaredField("apiLevel"));
+			compilerOptions = accessible(ASTParser.class.getDeclaredField("compilerOptions"));
+			bits = accessible(ASTParser.class.getDeclaredField("bits"));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.warn("The classpath cannot be shared by partitions with this version of JDT, it will be built for each of them", e);
+			getClasspath = null;
+			resolve = null;
+		}
+	}
+
+	// the bits of ASTParser, and the flags they become for the resolver
+	private static final int RESOLVE_BINDINGS = 1;
+	private static final int STATEMENTS_RECOVERY = 4;
+	private static final int IGNORE_METHOD_BODIES = 8;
+	private static final int BINDINGS_RECOVERY = 16;
+
+	// classpaths that no partition is using right now
+	private final Deque<List<Classpath>> free = new ConcurrentLinkedDeque<>();
+	// the jars of all classpaths that were built, so that they are all closed in the end
+	private final Queue<KeptJar> jars = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * Same as {@link ASTParser#createASTs}, but with the classpath of the analysis.
+	 * @param parser A parser with the environment of the analysis (see {@link ASTParser#setEnvironment})
+	 */
+	void createASTs(ASTParser parser, String[] sourceFilePaths, FileASTRequestor requestor) {
+		int parserBits = bits(parser);
+		if(getClasspath == null || (parserBits & RESOLVE_BINDINGS) == 0) {
+			parser.createASTs(sourceFilePaths, null, new String[0], requestor, null);
+			return;
+		}
+
+		List<Classpath> classpath = borrow(parser);
+		try {
+			resolve.invoke(null, sourceFilePaths, null, new String[0], requestor, apiLevel.getInt(parser),
+					compilerOptions.get(parser), classpath, flags(parserBits), null);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not parse with the shared classpath", e);
+		} catch (InvocationTargetException e) {
+			// as if JDT had been called directly
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException("Could not parse with the shared classpath", e.getCause());
+		} finally {
+			free.push(classpath);
+		}
+	}
+
+	private List<Classpath> borrow(ASTParser parser) {
+		List<Classpath> classpath = free.poll();
+		if(classpath != null)
+			return classpath;
+
+		classpath = new ArrayList<>();
+		for(Object entry : (List<?>) invoke(getClasspath, parser)) {
+			// other kinds of jars (e.g., multi-release ones) are left as they are, and so built again for each partition
+			if(entry.getClass() == ClasspathJar.class) {
+				KeptJar jar = new KeptJar((ClasspathJar) entry);
+				jars.add(jar);
+				classpath.add(jar);
+			} else {
+				classpath.add((Classpath) entry);
+			}
+		}
+		return classpath;
+	}
+
+	/**
+	 * JDT resets all entries of the classpath once it is done with a partition, which closes a jar and forgets
+	 * its packages; this jar ignores that, and is only reset when the analysis is over. It is still a
+	 * {@link ClasspathJar}, which is what JDT checks for, e.g., to look for external annotations.
+	 */
+	private static class KeptJar extends ClasspathJar {
+
+		KeptJar(ClasspathJar jar) {
+			// the entry JDT built is not initialized yet, i.e., it has not opened the jar
+			super(new File(jar.getPath()), true, jar.accessRuleSet, jar.destinationPath);
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		void close() {
+			super.reset();
+		}
+	}
+
+	// the same flags ASTParser#createASTs gives the resolver
+	private static int flags(int parserBits) {
+		int flags = 0;
+		if((parserBits & STATEMENTS_RECOVERY) != 0)
+			flags |= ICompilationUnit.ENABLE_STATEMENTS_RECOVERY;
+		if((parserBits & IGNORE_METHOD_BODIES) != 0)
+			flags |= ICompilationUnit.IGNORE_METHOD_BODIES;
+		if((parserBits & BINDINGS_RECOVERY) != 0)
+			flags |= ICompilationUnit.ENABLE_BINDINGS_RECOVERY;
+		return flags;
+	}
+
+	private static int bits(ASTParser parser) {
+		try {
+			return bits == null ? 0 : bits.getInt(parser);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not read the settings of the parser", e);
+		}
+	}
+
+	private static Object invoke(Method method, Object target) {
+		try {
+			return method.invoke(target);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Could not build the classpath", e);
+		}
+	}
+
+	private static <T extends AccessibleObject> T accessible(T member) {
+		member.setAccessible(true);
+		return member;
+	}
+
+	/**
+	 * Closes the jars of all classpaths. Partitions must not be parsed afterwards, nor be still being parsed.
+	 */
+	@Override
+	public void close() {
+		// other entries were already reset by JDT
+		jars.forEach(KeptJar::close);
+		jars.clear();
+		free.clear();
+	}
+}
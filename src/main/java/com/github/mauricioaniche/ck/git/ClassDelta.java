@@ -0,0 +1,58 @@
+package com.github.mauricioaniche.ck.git;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * How the metrics of a class changed in a commit.
+ * Deltas are "after - before": an added class has deltas equal to its metrics,
+ * and a removed class has deltas equal to minus its former metrics.
+ */
+public class ClassDelta {
+
+	public enum Change { ADDED, REMOVED, CHANGED }
+
+	private final String className;
+	private final String file;
+	private final Change change;
+	private final Map<String, Integer> metrics;
+	private final Map<String, Integer> deltas;
+
+	ClassDelta(String className, String file, Change change, Map<String, Integer> metrics, Map<String, Integer> deltas) {
+		this.className = className;
+		this.file = file;
+		this.change = change;
+		this.metrics = metrics;
+		this.deltas = deltas;
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * @return The file of the class after the commit (before it, for removed classes)
+	 */
+	public String getFile() {
+		return file;
+	}
+
+	public Change getChange() {
+		return change;
+	}
+
+	/**
+	 * @return The metrics of the class after the commit, empty for removed classes
+	 */
+	public Map<String, Integer> getMetrics() {
+		return Collections.unmodifiableMap(metrics);
+	}
+
+	public Map<String, Integer> getDeltas() {
+		return Collections.unmodifiableMap(deltas);
+	}
+
+	public int getDelta(String metric) {
+		return deltas.getOrDefault(metric, 0);
+	}
+}
@@ -0,0 +1,44 @@
+package com.github.mauricioaniche.ck.git;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The classes whose metrics changed in a single commit.
+ */
+public class CommitDelta {
+
+	private final String commitId;
+	private final String parentId;
+	private final int commitTime;
+	private final List<ClassDelta> classes;
+
+	CommitDelta(String commitId, String parentId, int commitTime, List<ClassDelta> classes) {
+		this.commitId = commitId;
+		this.parentId = parentId;
+		this.commitTime = commitTime;
+		this.classes = classes;
+	}
+
+	public String getCommitId() {
+		return commitId;
+	}
+
+	/**
+	 * @return The (first) parent the commit was compared to, or null for the very first commit
+	 */
+	public String getParentId() {
+		return parentId;
+	}
+
+	/**
+	 * @return Seconds since the epoch, as stored in the commit
+	 */
+	public int getCommitTime() {
+		return commitTime;
+	}
+
+	public List<ClassDelta> getClasses() {
+		return Collections.unmodifiableList(classes);
+	}
+}
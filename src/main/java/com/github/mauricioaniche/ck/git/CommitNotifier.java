@@ -0,0 +1,6 @@
+package com.github.mauricioaniche.ck.git;
+
+public interface CommitNotifier {
+	void notify(CommitDelta delta);
+	void notifyError(String commitId, String sourceFilePath, Exception e);
+}
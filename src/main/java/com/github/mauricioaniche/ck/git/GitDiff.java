@@ -0,0 +1,179 @@
+package com.github.mauricioaniche.ck.git;
+
+import com.github.mauricioaniche.ck.CK;
+import com.github.mauricioaniche.ck.CKClassResult;
+import com.github.mauricioaniche.ck.CKContext;
+import com.github.mauricioaniche.ck.CKNotifier;
+import com.github.mauricioaniche.ck.util.FileUtils;
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Calculates the metrics of only the .java files that changed between two revisions of a git repository.
+ *
+ * The new revision is analyzed from the working tree, which has to be checked out at that revision (with no
+ * uncommitted changes in the changed files), so that types can still be resolved against the rest of the project. The old versions of the changed
+ * files are read from the object database, only to find out which classes were added, removed, or changed.
+ */
+public class GitDiff {
+
+	private static Logger log = Logger.getLogger(GitDiff.class);
+
+	private final CK ck;
+
+	/**
+	 * @param ck The configured CK that analyzes the changed files of the new revision
+	 */
+	public GitDiff(CK ck) {
+		this.ck = ck;
+	}
+
+	/**
+	 * @param repositoryDir The project in the working tree of the repository (the working tree itself, or any directory
+	 *                      inside it). Only the changed files in it, and not in {@link FileUtils#IGNORED_DIRECTORIES},
+	 *                      are analyzed, and types are resolved against it, as they are in a full analysis of it
+	 * @param oldRevision The base revision, e.g., a commit hash, a branch, or "HEAD~1"
+	 * @param newRevision The revision the working tree is at
+	 * @param notifier Receives the results of the classes of the changed files in the new revision
+	 * @throws IllegalArgumentException If one of the revisions does not exist
+	 * @throws IllegalStateException If HEAD is not the new revision, or the changed files have uncommitted changes
+	 */
+	public GitDiffResult calculate(Path repositoryDir, String oldRevision, String newRevision, CKNotifier notifier) throws IOException {
+		try (Repository repository = new FileRepositoryBuilder().findGitDir(repositoryDir.toFile()).build()) {
+			List<DiffEntry> diffs = diff(repository, oldRevision, newRevision);
+
+			Path workTree = repository.getWorkTree().toPath().toRealPath();
+			Path project = repositoryDir.toRealPath();
+			List<String> newFiles = new ArrayList<>();
+			List<DiffEntry> oldFiles = new ArrayList<>();
+			for (DiffEntry diff : diffs) {
+				if (diff.getChangeType() != DiffEntry.ChangeType.DELETE && isAnalyzed(workTree, project, diff.getNewPath()))
+					newFiles.add(diff.getNewPath());
+				if (diff.getChangeType() != DiffEntry.ChangeType.ADD && isAnalyzed(workTree, project, diff.getOldPath()))
+					oldFiles.add(diff);
+			}
+			log.info(newFiles.size() + " java files changed between " + oldRevision + " and " + newRevision);
+			checkWorkTree(repository, newRevision, newFiles);
+
+			Set<String> newClasses = new LinkedHashSet<>();
+			CKContext context = ck.calculate(project, new CKNotifier() {
+				@Override
+				public void notify(CKClassResult result) {
+					newClasses.add(result.getClassName());
+					notifier.notify(result);
+				}
+
+				@Override
+				public void notifyError(String sourceFilePath, Exception e) {
+					notifier.notifyError(sourceFilePath, e);
+				}
+			}, newFiles.stream().map(workTree::resolve).toArray(Path[]::new));
+
+			Set<String> oldClasses = classesOf(repository, oldFiles);
+
+			Set<String> added = new LinkedHashSet<>(newClasses);
+			added.removeAll(oldClasses);
+			Set<String> removed = new LinkedHashSet<>(oldClasses);
+			removed.removeAll(newClasses);
+			Set<String> changed = new LinkedHashSet<>(newClasses);
+			changed.retainAll(oldClasses);
+
+			return new GitDiffResult(newFiles, added, removed, changed, context);
+		}
+	}
+
+	private List<DiffEntry> diff(Repository repository, String oldRevision, String newRevision) throws IOException {
+		try (RevWalk walk = new RevWalk(repository);
+			 DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+			formatter.setRepository(repository);
+			formatter.setDetectRenames(true);
+			return formatter.scan(tree(repository, walk, oldRevision), tree(repository, walk, newRevision));
+		}
+	}
+
+	// otherwise, the metrics would be of whatever is in the working tree, and not of the new revision
+	private void checkWorkTree(Repository repository, String newRevision, List<String> newFiles) throws IOException {
+		try (RevWalk walk = new RevWalk(repository)) {
+			ObjectId head = repository.resolve(Constants.HEAD);
+			if (head == null || !walk.parseCommit(head).equals(walk.parseCommit(resolve(repository, newRevision))))
+				throw new IllegalStateException("The working tree is not at " + newRevision + ", check it out first");
+		}
+
+		if (newFiles.isEmpty())
+			return;
+
+		StatusCommand status = Git.wrap(repository).status();
+		newFiles.forEach(status::addPath);
+		try {
+			Set<String> dirty = new TreeSet<>(status.call().getUncommittedChanges());
+			if (!dirty.isEmpty())
+				throw new IllegalStateException("Changed files have uncommitted changes: " + dirty);
+		} catch (GitAPIException e) {
+			throw new IOException("Could not read the status of the working tree", e);
+		}
+	}
+
+	private RevTree tree(Repository repository, RevWalk walk, String revision) throws IOException {
+		return walk.parseCommit(resolve(repository, revision)).getTree();
+	}
+
+	static ObjectId resolve(Repository repository, String revision) throws IOException {
+		ObjectId id = repository.resolve(revision);
+		if (id == null)
+			throw new IllegalArgumentException("Unknown revision: " + revision);
+		return id;
+	}
+
+	static boolean isJava(String path) {
+		return path.endsWith(".java");
+	}
+
+	// the same files a full analysis of the project would find: .java files in it, and not in an ignored directory
+	private static boolean isAnalyzed(Path workTree, Path project, String path) {
+		Path file = workTree.resolve(path);
+		return isJava(path) && file.startsWith(project) && !FileUtils.isIgnoredDir(file.toString(), FileUtils.IGNORED_DIRECTORIES);
+	}
+
+	// only the class names of the old versions are needed, so they are parsed in memory, without bindings or metrics
+	private Set<String> classesOf(Repository repository, List<DiffEntry> oldFiles) throws IOException {
+		Set<String> classes = new HashSet<>();
+		if (oldFiles.isEmpty())
+			return classes;
+
+		Map<String, String> sources = new LinkedHashMap<>();
+		for (DiffEntry diff : oldFiles)
+			sources.put(diff.getOldPath(), new String(repository.open(diff.getOldId().toObjectId()).getBytes(), StandardCharsets.UTF_8));
+
+		CK names = new CK(Collections::emptyList, Collections::emptyList);
+		names.setSyntaxOnly(true);
+		names.calculate(sources, new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				classes.add(result.getClassName());
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				log.warn("Could not analyze the old version of " + sourceFilePath, e);
+			}
+		});
+
+		return classes;
+	}
+}
@@ -0,0 +1,63 @@
+package com.github.mauricioaniche.ck.git;
+
+import com.github.mauricioaniche.ck.CKContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What changed between two revisions, at class level.
+ */
+public class GitDiffResult {
+
+	private final List<String> changedFiles;
+	private final Set<String> addedClasses;
+	private final Set<String> removedClasses;
+	private final Set<String> changedClasses;
+	private final CKContext context;
+
+	GitDiffResult(List<String> changedFiles, Set<String> addedClasses, Set<String> removedClasses, Set<String> changedClasses, CKContext context) {
+		this.changedFiles = changedFiles;
+		this.addedClasses = addedClasses;
+		this.removedClasses = removedClasses;
+		this.changedClasses = changedClasses;
+		this.context = context;
+	}
+
+	/**
+	 * @return The .java files (relative to the repository) that exist in the new revision and were analyzed
+	 */
+	public List<String> getChangedFiles() {
+		return Collections.unmodifiableList(changedFiles);
+	}
+
+	/**
+	 * @return Classes that only exist in the new revision
+	 */
+	public Set<String> getAddedClasses() {
+		return Collections.unmodifiableSet(addedClasses);
+	}
+
+	/**
+	 * @return Classes that only exist in the old revision
+	 */
+	public Set<String> getRemovedClasses() {
+		return Collections.unmodifiableSet(removedClasses);
+	}
+
+	/**
+	 * @return Classes that exist in both revisions and are declared in a file that changed
+	 */
+	public Set<String> getChangedClasses() {
+		return Collections.unmodifiableSet(changedClasses);
+	}
+
+	/**
+	 * @return The context of the analysis of the new revision. Note that project-wide metrics
+	 * only take the changed files into account.
+	 */
+	public CKContext getContext() {
+		return context;
+	}
+}
@@ -0,0 +1,238 @@
+package com.github.mauricioaniche.ck.git;
+
+import com.github.mauricioaniche.ck.CK;
+import com.github.mauricioaniche.ck.CKClassResult;
+import com.github.mauricioaniche.ck.CKNotifier;
+import com.github.mauricioaniche.ck.util.MetricsFinder;
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Mines the evolution of the metrics of a git repository, commit by commit.
+ *
+ * Nothing is checked out: the content of the files comes straight from the object database,
+ * and only the .java files touched by a commit are analyzed again. The walk follows the first
+ * parent of each commit, so merges are compared to the branch they were merged into.
+ *
+ * As files are analyzed in memory, types declared in other files are not resolved. Project-wide
+ * metrics (NOC, fan-in, fan-out) are not part of the deltas, as they depend on files that were not touched.
+ * Of the other metrics, only the ones the CK calculates are compared, see {@link #getColumns()}.
+ */
+public class GitHistory {
+
+	private static Logger log = Logger.getLogger(GitHistory.class);
+
+	// the metrics that can be compared between revisions
+	static final Map<String, ToIntFunction<CKClassResult>> METRICS = new LinkedHashMap<>();
+	static {
+		METRICS.put("cbo", CKClassResult::getCbo);
+		METRICS.put("wmc", CKClassResult::getWmc);
+		METRICS.put("dit", CKClassResult::getDit);
+		METRICS.put("rfc", CKClassResult::getRfc);
+		METRICS.put("lcom", CKClassResult::getLcom);
+		METRICS.put("loc", CKClassResult::getLoc);
+		METRICS.put("returnQty", CKClassResult::getReturnQty);
+		METRICS.put("loopQty", CKClassResult::getLoopQty);
+		METRICS.put("comparisonsQty", CKClassResult::getComparisonsQty);
+		METRICS.put("tryCatchQty", CKClassResult::getTryCatchQty);
+		METRICS.put("parenthesizedExpsQty", CKClassResult::getParenthesizedExpsQty);
+		METRICS.put("stringLiteralsQty", CKClassResult::getStringLiteralsQty);
+		METRICS.put("numbersQty", CKClassResult::getNumbersQty);
+		METRICS.put("assignmentsQty", CKClassResult::getAssignmentsQty);
+		METRICS.put("mathOperationsQty", CKClassResult::getMathOperationsQty);
+		METRICS.put("variablesQty", CKClassResult::getVariablesQty);
+		METRICS.put("maxNestedBlocksQty", CKClassResult::getMaxNestedBlocks);
+		METRICS.put("anonymousClassesQty", CKClassResult::getAnonymousClassesQty);
+		METRICS.put("innerClassesQty", CKClassResult::getInnerClassesQty);
+		METRICS.put("lambdasQty", CKClassResult::getLambdasQty);
+		METRICS.put("uniqueWordsQty", CKClassResult::getUniqueWordsQty);
+		METRICS.put("totalMethodsQty", CKClassResult::getNumberOfMethods);
+		METRICS.put("totalFieldsQty", CKClassResult::getNumberOfFields);
+		METRICS.put("logStatementsQty", CKClassResult::getNumberOfLogStatements);
+	}
+
+	private final CK ck;
+
+	/**
+	 * @param ck The configured CK that analyzes the files of each commit
+	 */
+	public GitHistory(CK ck) {
+		this.ck = ck;
+	}
+
+	/**
+	 * @return The metrics that are compared between revisions, in the order of {@link #METRICS}: the ones the
+	 *         CK was asked for (all of them if it was not asked for any), without the ones it cannot calculate
+	 *         (see {@link CK#getUnavailableColumns()})
+	 */
+	public List<String> getColumns() {
+		Set<String> selected = ck.getMetrics() == null ? null : ck.getMetrics().stream()
+				.map(MetricsFinder::canonicalColumn)
+				.collect(Collectors.toSet());
+		Set<String> unavailable = ck.getUnavailableColumns().stream()
+				.map(MetricsFinder::canonicalColumn)
+				.collect(Collectors.toSet());
+
+		List<String> columns = new ArrayList<>();
+		for (String metric : METRICS.keySet()) {
+			String column = MetricsFinder.canonicalColumn(metric);
+			if ((selected == null || selected.contains(column)) && !unavailable.contains(column))
+				columns.add(metric);
+		}
+		return columns;
+	}
+
+	/**
+	 * @param repositoryDir The repository (or any directory inside it)
+	 * @param fromRevision The revision the deltas start from (not included), or null to start at the first commit
+	 * @param toRevision The last revision to analyze, e.g., "HEAD"
+	 * @param notifier Receives the deltas of each commit, oldest first
+	 */
+	public void calculate(Path repositoryDir, String fromRevision, String toRevision, CommitNotifier notifier) throws IOException {
+		try (Repository repository = new FileRepositoryBuilder().findGitDir(repositoryDir.toFile()).build();
+			 RevWalk walk = new RevWalk(repository);
+			 DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+
+			formatter.setRepository(repository);
+			formatter.setDetectRenames(true);
+
+			List<String> columns = getColumns();
+
+			// the metrics of each class, per file, at the last visited commit
+			Map<String, Map<String, Map<String, Integer>>> snapshot = new HashMap<>();
+
+			RevCommit from = null;
+			if (fromRevision != null) {
+				from = walk.parseCommit(GitDiff.resolve(repository, fromRevision));
+				snapshot.putAll(analyze(repository, from.getName(), allJavaFiles(repository, from.getTree()), columns, notifier));
+			}
+
+			walk.setFirstParent(true);
+			walk.sort(RevSort.TOPO);
+			walk.sort(RevSort.REVERSE, true);
+			walk.markStart(walk.parseCommit(GitDiff.resolve(repository, toRevision)));
+			if (from != null)
+				walk.markUninteresting(from);
+
+			for (RevCommit commit : walk) {
+				RevCommit parent = commit.getParentCount() > 0 ? walk.parseCommit(commit.getParent(0)) : null;
+				List<DiffEntry> diffs = formatter.scan(parent == null ? null : parent.getTree(), commit.getTree());
+
+				notifier.notify(new CommitDelta(commit.getName(), parent == null ? null : parent.getName(),
+						commit.getCommitTime(), apply(repository, commit, diffs, snapshot, columns, notifier)));
+			}
+		}
+	}
+
+	// brings the snapshot to the given commit, and returns what changed
+	private List<ClassDelta> apply(Repository repository, RevCommit commit, List<DiffEntry> diffs,
+								   Map<String, Map<String, Map<String, Integer>>> snapshot, List<String> columns, CommitNotifier notifier) throws IOException {
+		Map<String, String> before = new LinkedHashMap<>();
+		Map<String, Map<String, Integer>> beforeMetrics = new HashMap<>();
+		Map<String, ObjectId> touched = new LinkedHashMap<>();
+
+		for (DiffEntry diff : diffs) {
+			if (diff.getChangeType() != DiffEntry.ChangeType.ADD && GitDiff.isJava(diff.getOldPath())) {
+				Map<String, Map<String, Integer>> classes = snapshot.remove(diff.getOldPath());
+				if (classes != null) {
+					classes.forEach((className, metrics) -> before.put(className, diff.getOldPath()));
+					beforeMetrics.putAll(classes);
+				}
+			}
+			if (diff.getChangeType() != DiffEntry.ChangeType.DELETE && GitDiff.isJava(diff.getNewPath()))
+				touched.put(diff.getNewPath(), diff.getNewId().toObjectId());
+		}
+
+		Map<String, Map<String, Map<String, Integer>>> after = analyze(repository, commit.getName(), touched, columns, notifier);
+		snapshot.putAll(after);
+
+		List<ClassDelta> deltas = new ArrayList<>();
+		after.forEach((file, classes) -> classes.forEach((className, metrics) -> {
+			Map<String, Integer> old = beforeMetrics.get(className);
+			Map<String, Integer> delta = difference(old == null ? Collections.emptyMap() : old, metrics, columns);
+
+			if (old == null)
+				deltas.add(new ClassDelta(className, file, ClassDelta.Change.ADDED, metrics, delta));
+			else if (!delta.isEmpty())
+				deltas.add(new ClassDelta(className, file, ClassDelta.Change.CHANGED, metrics, delta));
+		}));
+
+		Set<String> stillThere = new HashSet<>();
+		after.values().forEach(classes -> stillThere.addAll(classes.keySet()));
+		before.forEach((className, file) -> {
+			if (!stillThere.contains(className))
+				deltas.add(new ClassDelta(className, file, ClassDelta.Change.REMOVED, Collections.emptyMap(),
+						difference(beforeMetrics.get(className), Collections.emptyMap(), columns)));
+		});
+
+		return deltas;
+	}
+
+	// only the metrics that changed
+	private Map<String, Integer> difference(Map<String, Integer> before, Map<String, Integer> after, List<String> columns) {
+		Map<String, Integer> delta = new LinkedHashMap<>();
+		for (String metric : columns) {
+			int value = after.getOrDefault(metric, 0) - before.getOrDefault(metric, 0);
+			if (value != 0)
+				delta.put(metric, value);
+		}
+		return delta;
+	}
+
+	private Map<String, Map<String, Map<String, Integer>>> analyze(Repository repository, String commitId, Map<String, ObjectId> files, List<String> columns, CommitNotifier notifier) throws IOException {
+		Map<String, String> sources = new LinkedHashMap<>();
+		for (Map.Entry<String, ObjectId> file : files.entrySet())
+			sources.put(file.getKey(), new String(repository.open(file.getValue()).getBytes(), StandardCharsets.UTF_8));
+
+		Map<String, Map<String, Map<String, Integer>>> results = new LinkedHashMap<>();
+		// files without classes are also kept, so that the snapshot knows about them
+		sources.keySet().forEach(file -> results.put(file, new LinkedHashMap<>()));
+
+		ck.calculate(sources, new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				Map<String, Integer> metrics = new LinkedHashMap<>();
+				columns.forEach(name -> metrics.put(name, METRICS.get(name).applyAsInt(result)));
+				results.get(result.getFile()).put(result.getClassName(), metrics);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				notifier.notifyError(commitId, sourceFilePath, e);
+			}
+		});
+
+		log.debug("Analyzed " + sources.size() + " files in " + commitId);
+		return results;
+	}
+
+	private Map<String, ObjectId> allJavaFiles(Repository repository, RevTree tree) throws IOException {
+		Map<String, ObjectId> files = new LinkedHashMap<>();
+		try (TreeWalk treeWalk = new TreeWalk(repository)) {
+			treeWalk.addTree(tree);
+			treeWalk.setRecursive(true);
+			while (treeWalk.next()) {
+				if (GitDiff.isJava(treeWalk.getPathString()))
+					files.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+			}
+		}
+		return files;
+	}
+}
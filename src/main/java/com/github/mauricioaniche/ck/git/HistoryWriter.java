@@ -0,0 +1,55 @@
+package com.github.mauricioaniche.ck.git;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the deltas of each commit to a csv file, one line per class that changed.
+ */
+public class HistoryWriter implements CommitNotifier {
+
+	private final CSVPrinter printer;
+	private final List<String> columns;
+
+	/**
+	 * @param file The csv file to write to
+	 * @param columns The metrics of the deltas, see {@link GitHistory#getColumns()}
+	 */
+	public HistoryWriter(String file, List<String> columns) throws IOException {
+		this.columns = new ArrayList<>(columns);
+		List<String> header = new ArrayList<>(List.of("commit", "parent", "time", "file", "class", "change"));
+		header.addAll(columns);
+		this.printer = new CSVPrinter(new FileWriter(file), CSVFormat.DEFAULT.withHeader(header.toArray(new String[0])));
+	}
+
+	@Override
+	public void notify(CommitDelta delta) {
+		try {
+			for (ClassDelta clazz : delta.getClasses()) {
+				List<Object> row = new ArrayList<>(List.of(delta.getCommitId(), delta.getParentId() == null ? "" : delta.getParentId(),
+						delta.getCommitTime(), clazz.getFile(), clazz.getClassName(), clazz.getChange()));
+				columns.forEach(metric -> row.add(clazz.getDelta(metric)));
+				printer.printRecord(row);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void notifyError(String commitId, String sourceFilePath, Exception e) {
+		System.err.println("Error in " + sourceFilePath + " at " + commitId);
+		e.printStackTrace(System.err);
+	}
+
+	public void flushAndClose() throws IOException {
+		printer.flush();
+		printer.close();
+	}
+}
@@ -0,0 +1,20 @@
+package com.github.mauricioaniche.ck.metric;
+
+import com.github.mauricioaniche.ck.AccessIndex;
+
+/**
+ * Metrics that depend on the fields and variables accessed by methods read them from the {@link AccessIndex}
+ * of the class, instead of resolving names themselves. Class level metrics receive the index of their class,
+ * and method level metrics the accesses of their method, before they visit anything; both are complete
+ * once the metric is asked for its result.
+ */
+public interface AccessAwareMetric {
+
+	default void setAccesses(AccessIndex accesses) {
+
+	}
+
+	default void setAccesses(AccessIndex.MethodAccesses accesses) {
+
+	}
+}
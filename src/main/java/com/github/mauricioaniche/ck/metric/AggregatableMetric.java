@@ -0,0 +1,14 @@
+package com.github.mauricioaniche.ck.metric;
+
+import com.github.mauricioaniche.ck.CKMethodResult;
+
+/**
+ * A metric whose value for a class is the aggregation (e.g., the sum) of its values for each method
+ * (and initializer) of the class, plus whatever it finds outside of them (e.g., in field declarations).
+ *
+ * When the metric also runs at method level, its class level instance does not visit the nodes inside
+ * methods; instead, it receives each method of the class as soon as the method level metrics are done with it.
+ */
+public interface AggregatableMetric extends ClassLevelMetric, MethodLevelMetric {
+	void addMethod(CKMethodResult method);
+}
@@ -1,52 +1,77 @@
 package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
+import com.github.mauricioaniche.ck.CKContext;
 import com.github.mauricioaniche.ck.CKMethodResult;
+import com.github.mauricioaniche.ck.metric.CouplingExtras.CouplingClassification;
+import com.github.mauricioaniche.ck.util.JDTUtils;
+import com.github.mauricioaniche.ck.util.ObjectIntMap;
 import org.eclipse.jdt.core.dom.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+/**
+ * Collects the coupling of a class (or method) to other types, resolving each type reference only once.
+ * The types give its CBO, and they also go, together with the categories of the coupling (for classes) and
+ * the methods it invokes (for methods), to the {@link CouplingExtras} of the analysis, where fan-in,
+ * fan-out, and CBO modified come from.
+ */
+public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric, ContextAwareMetric {
 
-	private Set<String> coupling = new HashSet<String>();
+	// types this class (or method) is coupled to, and the categories of each coupling (a bit per category)
+	private ObjectIntMap<String> coupling = new ObjectIntMap<>();
+	// methods this method invokes (not collected for classes)
+	private Set<String> invokedMethods = new HashSet<>();
+
+	private CouplingExtras extras;
+	private String className;
+	private String methodName;
+
+	@Override
+	public void setContext(CKContext context) {
+		this.extras = context.getCouplingExtras();
+	}
 
 	@Override
 	public void visit(VariableDeclarationStatement node) {
-		coupleTo(node.getType());
+		coupleTo(node.getType(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 	}
 
 	@Override
-	public void visit(ClassInstanceCreation node) {
-		coupleTo(node.getType());
+	public void visit(ClassInstanceCreation node) { //Parameter coupling -> constructor call.
+		coupleTo(node.getType(), parameterCoupling(node.arguments()));
+
+		if(this.methodName != null)
+			invoked(node.resolveConstructorBinding());
 	}
 
 	@Override
 	public void visit(ArrayCreation node) {
-		coupleTo(node.getType());
+		coupleTo(node.getType(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 	}
 
 	@Override
 	public void visit(FieldDeclaration node) {
-		coupleTo(node.getType());
+		coupleTo(node.getType(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 	}
 
 	public void visit(ReturnStatement node) {
 		if (node.getExpression() != null) {
-			coupleTo(node.getExpression().resolveTypeBinding());
+			coupleTo(node.getExpression().resolveTypeBinding(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 		}
 	}
 
 	@Override
 	public void visit(TypeLiteral node) {
-		coupleTo(node.getType());
+		coupleTo(node.getType(), null);
 	}
-	
+
 	public void visit(ThrowStatement node) {
 		if(node.getExpression()!=null)
-			coupleTo(node.getExpression().resolveTypeBinding());
+			coupleTo(node.getExpression().resolveTypeBinding(), null);
 	}
 
 	public void visit(TypeDeclaration node) {
@@ -55,57 +80,61 @@ public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 		if(resolvedType!=null) {
 			ITypeBinding binding = resolvedType.getSuperclass();
 			if (binding != null)
-				coupleTo(binding);
+				coupleTo(binding, CouplingClassification.INHERITANCE_COUPLING);
 
 			for (ITypeBinding interfaces : resolvedType.getInterfaces()) {
-				coupleTo(interfaces);
+				coupleTo(interfaces, CouplingClassification.INTERFACE_COUPLING);
 			}
 		} else {
-			coupleTo(node.getSuperclassType());
+			coupleTo(node.getSuperclassType(), CouplingClassification.INHERITANCE_COUPLING);
 			List<Type> list = node.superInterfaceTypes();
-			list.forEach(x -> coupleTo(x));
+			list.forEach(x -> coupleTo(x, CouplingClassification.INTERFACE_COUPLING));
 		}
 
 	}
 
-	public void visit(MethodDeclaration node) {
+	public void visit(MethodDeclaration node) { // Data abstraction coupling: B methodOfA(X x, Y y) {return new B(...)}
 
 		IMethodBinding resolvedMethod = node.resolveBinding();
 		if (resolvedMethod != null) {
 
-			coupleTo(resolvedMethod.getReturnType());
+			coupleTo(resolvedMethod.getReturnType(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 
 			for (ITypeBinding param : resolvedMethod.getParameterTypes()) {
-				coupleTo(param);
+				coupleTo(param, CouplingClassification.DATA_ABSTRACTION_COUPLING);
 			}
 		} else {
-			coupleTo(node.getReturnType2());
+			coupleTo(node.getReturnType2(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 			List<TypeParameter> list = node.typeParameters();
-			list.forEach(x -> coupleTo(x.getName()));
+			list.forEach(x -> coupleTo(x.getName(), CouplingClassification.DATA_ABSTRACTION_COUPLING));
 		}
 
 	}
 
 	@Override
 	public void visit(CastExpression node) {
-		coupleTo(node.getType());
+		coupleTo(node.getType(), null);
 
 	}
 
 	@Override
 	public void visit(InstanceofExpression node) {
 
-		coupleTo(node.getRightOperand());
-		coupleTo(node.getLeftOperand().resolveTypeBinding());
+		coupleTo(node.getRightOperand(), null);
+		coupleTo(node.getLeftOperand().resolveTypeBinding(), null);
 
 	}
 
 	@Override
-	public void visit(MethodInvocation node) {
+	public void visit(MethodInvocation node) { //parameter coupling
 
 		IMethodBinding binding = node.resolveMethodBinding();
-		if(binding!=null)
-			coupleTo(binding.getDeclaringClass());
+		if(binding!=null) {
+			coupleTo(binding.getDeclaringClass(), parameterCoupling(node.arguments()));
+
+			if(this.methodName != null)
+				invoked(binding);
+		}
 
 	}
 
@@ -121,83 +150,99 @@ public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 		coupleTo(node);
 	}
 
-	public void visit(ParameterizedType node) {
+	public void visit(ParameterizedType node) { // Data abstraction coupling.
 		try {
 			ITypeBinding binding = node.resolveBinding();
 			if (binding != null) {
-	
-				coupleTo(binding);
-	
+
+				coupleTo(binding, CouplingClassification.DATA_ABSTRACTION_COUPLING);
+
 				for (ITypeBinding types : binding.getTypeArguments()) {
-					coupleTo(types);
+					coupleTo(types, CouplingClassification.DATA_ABSTRACTION_COUPLING);
 				}
 			} else {
-				coupleTo(node.getType());
+				coupleTo(node.getType(), CouplingClassification.DATA_ABSTRACTION_COUPLING);
 			}
 		} catch (NullPointerException e) {
 			// TODO: handle exception
 		}
 
 	}
+
+	// only classes keep the categories of their coupling, so arguments are not resolved for methods
+	private CouplingClassification parameterCoupling(List<?> arguments) {
+		if(this.className == null)
+			return null;
+
+		CouplingClassification category = CouplingClassification.ATOMIC_PARAMETER_COUPLING;
+		for (Object argument : arguments) {
+			ITypeBinding argBinding = ((Expression) argument).resolveTypeBinding();
+			if(argBinding!= null && !argBinding.isPrimitive()){
+				category = CouplingClassification.OBJECT_PARAMETER_COUPLING;
+			}
+		}
+		return category;
+	}
+
 	private void coupleTo(Annotation type) {
 		ITypeBinding resolvedType = type.resolveTypeBinding();
 		if(resolvedType!=null)
-			coupleTo(resolvedType);
+			coupleTo(resolvedType, null);
 		else {
-			addToSet(type.getTypeName().getFullyQualifiedName());
+			addToSet(type.getTypeName().getFullyQualifiedName(), null);
 		}
 	}
 
-	private void coupleTo(Type type) {
+	private void coupleTo(Type type, CouplingClassification category) {
 		if(type==null)
 			return;
 
 		ITypeBinding resolvedBinding = type.resolveBinding();
 		if(resolvedBinding!=null)
-			coupleTo(resolvedBinding);
+			coupleTo(resolvedBinding, category);
 		else {
 			if(type instanceof SimpleType) {
 				SimpleType castedType = (SimpleType) type;
-				addToSet(castedType.getName().getFullyQualifiedName());
+				addToSet(castedType.getName().getFullyQualifiedName(), category);
 			}
 			else if(type instanceof QualifiedType) {
 				QualifiedType castedType = (QualifiedType) type;
-				addToSet(castedType.getName().getFullyQualifiedName());
+				addToSet(castedType.getName().getFullyQualifiedName(), category);
 			}
 			else if(type instanceof NameQualifiedType) {
 				NameQualifiedType castedType = (NameQualifiedType) type;
-				addToSet(castedType.getName().getFullyQualifiedName());
+				addToSet(castedType.getName().getFullyQualifiedName(), category);
 			}
 			else if(type instanceof ParameterizedType) {
 				ParameterizedType castedType = (ParameterizedType) type;
-				coupleTo(castedType.getType());
+				coupleTo(castedType.getType(), null);
 			}
 			else if(type instanceof WildcardType) {
 				WildcardType castedType = (WildcardType) type;
-				coupleTo(castedType.getBound());
+				coupleTo(castedType.getBound(), null);
 			}
 			else if(type instanceof ArrayType) {
 				ArrayType castedType = (ArrayType) type;
-				coupleTo(castedType.getElementType());
+				coupleTo(castedType.getElementType(), null);
 			}
 			else if(type instanceof IntersectionType) {
 				IntersectionType castedType = (IntersectionType) type;
 				List<Type> types = castedType.types();
-				types.stream().forEach(x -> coupleTo(x));
+				types.stream().forEach(x -> coupleTo(x, null));
 			}
 			else if(type instanceof UnionType) {
 				UnionType castedType = (UnionType) type;
 				List<Type> types = castedType.types();
-				types.stream().forEach(x -> coupleTo(x));
+				types.stream().forEach(x -> coupleTo(x, null));
 			}
 		}
 	}
 
-	private void coupleTo(SimpleName name) {
-		addToSet(name.getFullyQualifiedName());
+	private void coupleTo(SimpleName name, CouplingClassification category) {
+		addToSet(name.getFullyQualifiedName(), category);
 	}
 
-	private void coupleTo(ITypeBinding binding) {
+	private void coupleTo(ITypeBinding binding, CouplingClassification category) {
 
 		if (binding == null)
 			return;
@@ -206,7 +251,7 @@ public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 		if (binding.isNullType())
 			return;
 
-		String type = binding.getQualifiedName();
+		String type = JDTUtils.getQualifiedName(binding);
 		if (type.equals("null"))
 			return;
 
@@ -215,7 +260,23 @@ public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 
 
 		String cleanedType = cleanClassName(type);
-		addToSet(cleanedType);
+		addToSet(cleanedType, category);
+	}
+
+	private void invoked(IMethodBinding binding) {
+
+		if(binding == null)
+			return;
+
+		String methodNameInvoked = JDTUtils.getQualifiedMethodFullName(binding);
+
+		if (methodNameInvoked.equals("null"))
+			return;
+
+		if (isFromJava(methodNameInvoked))
+			return;
+
+		invokedMethods.add(methodNameInvoked);
 	}
 
 	private String cleanClassName(String type) {
@@ -233,39 +294,53 @@ public class CBO implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 		return type.startsWith("java.") || type.startsWith("javax.");
 	}
 
-	private void addToSet(String name) {
-		this.coupling.add(name);
+	private void addToSet(String name, CouplingClassification category) {
+		int categories = coupling.get(name, 0);
+		coupling.put(name, category == null ? categories : categories | category.bit());
 	}
 
 	@Override
 	public void setResult(CKClassResult result) {
-		clean();
 		result.setCbo(getValue());
+
+		coupling.forEach((type, categories) -> extras.addClassCoupling(this.className, type, categories));
 	}
 
-	// given that some resolvings might fail, we remove types that might
-	// had appeared here twice.
+	@Override
+	public void setResult(CKMethodResult result) {
+		result.setCbo(getValue());
+
+		for(String invokedMethod : invokedMethods) {
+			extras.addToSetMethodIn(invokedMethod, this.methodName);
+			extras.addToSetMethodOut(this.methodName, invokedMethod);
+		}
+	}
+
+	// given that some resolvings might fail, types that might have appeared here twice count once.
 	// e.g. if the set contains 'A.B.Class' and 'Class', it is likely that
 	// 'Class' == 'A.B.Class'
-	private void clean() {
-		Set<String> singleQualifiedTypes = coupling.stream().filter(x -> !x.contains(".")).collect(Collectors.toSet());
-
-		for(String singleQualifiedType : singleQualifiedTypes) {
-			long count = coupling.stream().filter(x -> x.endsWith("." + singleQualifiedType)).count();
+	private int getValue() {
+		List<String> types = new ArrayList<>(coupling.size());
+		coupling.forEach((type, categories) -> types.add(type));
+		return CouplingExtras.reconciledSize(types);
+	}
 
-			boolean theSameFullyQualifiedTypeExists = count > 0;
-			if(theSameFullyQualifiedTypeExists)
-				coupling.remove(singleQualifiedType);
-		}
+	@Override
+	public void setClassName(String className) {
+		this.className = className;
 	}
 
 	@Override
-	public void setResult(CKMethodResult result) {
-		clean();
-		result.setCbo(getValue());
+	public void setMethodName(String methodName) {
+		this.methodName = methodName;
 	}
 
-	private int getValue() {
-		return coupling.size();
+	@Override
+	public boolean reset() {
+		coupling.clear();
+		invokedMethods.clear();
+		className = null;
+		methodName = null;
+		return true;
 	}
 }
@@ -3,7 +3,7 @@ package com.github.mauricioaniche.ck.metric;
 import com.github.mauricioaniche.ck.CKClassResult;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
-public interface ClassLevelMetric {
+public interface ClassLevelMetric extends ResettableMetric {
 	void setResult(CKClassResult result);
 	
 	default void setClassName(String className) {
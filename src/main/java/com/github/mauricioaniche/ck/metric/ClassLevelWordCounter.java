@@ -2,46 +2,64 @@ package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.util.WordCounter;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.EnumDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.github.mauricioaniche.ck.util.WordCounter.removeSpacesAndIdentation;
 
 public class ClassLevelWordCounter implements CKASTVisitor, ClassLevelMetric {
 
-	private String classSourceCode;
+	private ASTNode type;
+	// types declared in this one, in the order they were visited; their words do not count
+	private List<ASTNode> innerTypes = new ArrayList<>();
 
 	public void visit(TypeDeclaration node) {
-
-		String typeSourceCode = node.toString();
-		setOrRemoveSourceCode(typeSourceCode);
-
+		add(node);
 	}
 
 	public void visit(AnonymousClassDeclaration node) {
-		setOrRemoveSourceCode(node.toString());
-
+		add(node);
 	}
 
 	public void visit(EnumDeclaration node) {
-		setOrRemoveSourceCode(node.toString());
+		add(node);
+	}
 
+	private void add(ASTNode node) {
+		if (type == null)
+			type = node;
+		else
+			innerTypes.add(node);
 	}
 
-	private void setOrRemoveSourceCode(String typeSourceCode) {
-		if (classSourceCode == null) {
-			classSourceCode = removeSpacesAndIdentation(typeSourceCode);
-		} else {
-			String otherType = removeSpacesAndIdentation(typeSourceCode);
-			classSourceCode = removeSpacesAndIdentation(classSourceCode.replace(otherType, ""));
+	@Override
+	public void setResult(CKClassResult result) {
+		int qtyOfUniqueWords = WordCounter.uniqueWordsQty(sourceCode());
+		result.setUniqueWordsQty(qtyOfUniqueWords);
+	}
+
+	// the code is only printed (and normalized, so that inner types can be found in it) once the class is over
+	private String sourceCode() {
+		if (innerTypes.isEmpty())
+			return type.toString();
 
+		String classSourceCode = removeSpacesAndIdentation(type.toString());
+		for (ASTNode innerType : innerTypes) {
+			String otherType = removeSpacesAndIdentation(innerType.toString());
+			classSourceCode = removeSpacesAndIdentation(classSourceCode.replace(otherType, ""));
 		}
+		return classSourceCode;
 	}
 
 	@Override
-	public void setResult(CKClassResult result) {
-		int qtyOfUniqueWords = WordCounter.wordsIn(classSourceCode).size();
-		result.setUniqueWordsQty(qtyOfUniqueWords);
+	public boolean reset() {
+		type = null;
+		innerTypes.clear();
+		return true;
 	}
 }
@@ -0,0 +1,11 @@
+package com.github.mauricioaniche.ck.metric;
+
+import com.github.mauricioaniche.ck.CKContext;
+
+/**
+ * Metrics that need the state of the whole analysis (e.g., to count the children
+ * of a class declared in another file) receive the current {@link CKContext} before they visit anything.
+ */
+public interface ContextAwareMetric {
+	void setContext(CKContext context);
+}
@@ -1,20 +1,36 @@
 package com.github.mauricioaniche.ck.metric;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-public class CouplingExtras {
-
-	private Map<String, Set<String>> couplingClassIn;
-	private Map<String, Set<String>> couplingClassOut;
-	private Map<String, Set<String>> couplingMethodIn;
-	private Map<String, Set<String>> couplingMethodOut;
-    private Map<String, Map<String, Set<CouplingClassification>>> classCouplingCategories;
-	private static CouplingExtras instance;
-	
+import com.github.mauricioaniche.ck.util.IntIntMap;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Accumulates the coupling between classes (and methods) of a single analysis.
+ * Not thread-safe: partitions that are parsed at the same time collect their coupling apart, in contexts
+ * of their own, which are then added to the one of the analysis (see {@link #addAll}) by a single thread.
+ *
+ * Names of classes and methods are stored once, in a symbol table, and the coupling itself is kept as
+ * maps of ints per class (or method). Coupling that was found before a type could be resolved (i.e., with
+ * its simple name) is reconciled with the fully qualified names once per class, when its fan-in or fan-out
+ * is first read after it changed, and not on every read.
+ */
+public class CouplingExtras implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Map<String, Integer> ids;
+	private final List<String> names;
+
+	// indexed by the id of a class (or method); the values of class out are the categories of the coupling
+	private final List<IntIntMap> couplingClassIn;
+	private final List<IntIntMap> couplingClassOut;
+	private final List<IntIntMap> couplingMethodIn;
+	private final List<IntIntMap> couplingMethodOut;
+
+	// reconciled fan-in and fan-out of each class, or -1 if they have to be counted again
+	private int[] fanInClass;
+	private int[] fanOutClass;
+
     public static enum CouplingClassification {
         //Parameter coupling
         ATOMIC_PARAMETER_COUPLING,
@@ -32,151 +48,227 @@ public class CouplingExtras {
 
         //Data abstraction coupling
         DATA_ABSTRACTION_COUPLING;
+
+        int bit() {
+            return 1 << ordinal();
+        }
     }
 
 
-	private CouplingExtras() {
-		this.couplingClassIn = new HashMap<String, Set<String>>();
-		this.couplingClassOut = new HashMap<String, Set<String>>();
-		this.couplingMethodIn = new HashMap<String, Set<String>>();
-		this.couplingMethodOut = new HashMap<String, Set<String>>();
-        this.classCouplingCategories = new HashMap<String, Map<String, Set<CouplingClassification>>>();
+	public CouplingExtras() {
+		this.ids = new HashMap<>();
+		this.names = new ArrayList<>();
+		this.couplingClassIn = new ArrayList<>();
+		this.couplingClassOut = new ArrayList<>();
+		this.couplingMethodIn = new ArrayList<>();
+		this.couplingMethodOut = new ArrayList<>();
+		this.fanInClass = new int[0];
+		this.fanOutClass = new int[0];
 	}
-	
-    public void addCouplingCategoryBetweenClasses(String key, String clazz, CouplingClassification category){
-
-        if(this.classCouplingCategories.get(key) != null){
-			if(this.classCouplingCategories.get(key).get(clazz) != null) {
-                this.classCouplingCategories.get(key).get(clazz).add(category);
-            }else{
-                this.classCouplingCategories.get(key).put(clazz,  new HashSet<>());
-                this.classCouplingCategories.get(key).get(clazz).add(category);
-            }
-		}else {
-			this.classCouplingCategories.put(key, new HashMap<>());
-			this.classCouplingCategories.get(key).put(clazz, new HashSet<>());
-            this.classCouplingCategories.get(key).get(clazz).add(category);
-		}
-
-        //Symmetric data structure:
-        /* 
-        if(this.classCouplingCategories.get(clazz) != null){
-            if(this.classCouplingCategories.get(clazz).get(key) == null) {
-                this.classCouplingCategories.get(clazz).put(key, this.classCouplingCategories.get(key).get(clazz));
-            }
-        }else{
-            this.classCouplingCategories.put(clazz, new HashMap<>());
-            this.classCouplingCategories.get(clazz).put(key, this.classCouplingCategories.get(key).get(clazz));
-        }
-        */
 
+    public void addCouplingCategoryBetweenClasses(String key, String clazz, CouplingClassification category){
+        addCategories(key, clazz, category.bit());
     }
 
+	/**
+	 * Adds the coupling of a class to another class, in both directions, together with its categories
+	 * (a bit per {@link CouplingClassification}, or 0 if none).
+	 */
+	void addClassCoupling(String key, String clazz, int categories){
+		int id = idOf(key);
+		int other = idOf(clazz);
+		if(add(this.couplingClassIn, other, id, 0))
+			fanInClass[other] = -1;
+		if(add(this.couplingClassOut, id, other, categories))
+			fanOutClass[id] = -1;
+	}
+
 	public void addToSetClassIn(String key, String clazz){
-		if(this.couplingClassIn.get(key) != null){
-			this.couplingClassIn.get(key).add(clazz);
-		}else {
-			this.couplingClassIn.put(key, new HashSet<>());
-			this.couplingClassIn.get(key).add(clazz);
-		}
+		int id = idOf(key);
+		if(add(this.couplingClassIn, id, idOf(clazz), 0))
+			fanInClass[id] = -1;
 	}
-	
+
 	public void addToSetClassOut(String key, String clazz){
-		if(this.couplingClassOut.get(key) != null){
-			this.couplingClassOut.get(key).add(clazz);
-		}else {
-			this.couplingClassOut.put(key, new HashSet<>());
-			this.couplingClassOut.get(key).add(clazz);
-		}
+		addCategories(key, clazz, 0);
 	}
-	
+
 	public void addToSetMethodIn(String key, String method){
-		if(this.couplingMethodIn.get(key) != null){
-			this.couplingMethodIn.get(key).add(method);
-		}else {
-			this.couplingMethodIn.put(key, new HashSet<>());
-			this.couplingMethodIn.get(key).add(method);
-		}
+		add(this.couplingMethodIn, idOf(key), idOf(method), 0);
 	}
-	
+
 	public void addToSetMethodOut(String key, String method){
-		if(this.couplingMethodOut.get(key) != null){
-			this.couplingMethodOut.get(key).add(method);
-		}else {
-			this.couplingMethodOut.put(key, new HashSet<>());
-			this.couplingMethodOut.get(key).add(method);
+		add(this.couplingMethodOut, idOf(key), idOf(method), 0);
+	}
+
+	private void addCategories(String key, String clazz, int categories) {
+		int id = idOf(key);
+		if(add(this.couplingClassOut, id, idOf(clazz), categories))
+			fanOutClass[id] = -1;
+	}
+
+	// returns true if the value is new for the key
+	private boolean add(List<IntIntMap> coupling, int key, int value, int categories) {
+		IntIntMap values = coupling.get(key);
+		if(values == null) {
+			values = new IntIntMap();
+			coupling.set(key, values);
+		}
+		return values.or(value, categories);
+	}
+
+	private int idOf(String name) {
+		Integer id = ids.get(name);
+		if(id != null)
+			return id;
+
+		id = names.size();
+		ids.put(name, id);
+		names.add(name);
+		couplingClassIn.add(null);
+		couplingClassOut.add(null);
+		couplingMethodIn.add(null);
+		couplingMethodOut.add(null);
+		if(id >= fanInClass.length) {
+			int length = Math.max(16, fanInClass.length * 2);
+			fanInClass = Arrays.copyOf(fanInClass, length);
+			fanOutClass = Arrays.copyOf(fanOutClass, length);
+		}
+		fanInClass[id] = -1;
+		fanOutClass[id] = -1;
+		return id;
+	}
+
+	/**
+	 * Adds the coupling of another context (e.g., of a partition, or of a single file) to this one.
+	 * Each of its names is looked up once, in the order they were first seen there, and the coupling
+	 * is then added as ints.
+	 */
+	public void addAll(CouplingExtras other) {
+		int[] otherIds = new int[other.names.size()];
+		for(int id = 0; id < otherIds.length; id++)
+			otherIds[id] = idOf(other.names.get(id));
+
+		addAll(other.couplingClassIn, couplingClassIn, otherIds, fanInClass);
+		addAll(other.couplingClassOut, couplingClassOut, otherIds, fanOutClass);
+		addAll(other.couplingMethodIn, couplingMethodIn, otherIds, null);
+		addAll(other.couplingMethodOut, couplingMethodOut, otherIds, null);
+	}
+
+	// otherIds maps the ids of the other context to the ids here; the reconciled counts of the keys are reset
+	private void addAll(List<IntIntMap> otherCoupling, List<IntIntMap> coupling, int[] otherIds, int[] reconciled) {
+		for(int key = 0; key < otherCoupling.size(); key++) {
+			IntIntMap values = otherCoupling.get(key);
+			if(values == null)
+				continue;
+
+			int id = otherIds[key];
+			values.forEach((value, categories) -> add(coupling, id, otherIds[value], categories));
+			if(reconciled != null)
+				reconciled[id] = -1;
 		}
 	}
-	
+
 	public int getValueCBOClass(String className){
 
 		return getValueFanInClass(className) + getValueFanOutClass(className);
-		
+
 	}
-	
+
 	public int getValueCBOMethod(String methodName){
 
 		return getValueFanInMethod(methodName) + getValueFanOutMethod(methodName);
-		
+
 	}
-	
+
 	public int getValueFanInClass(String className){
+		Integer id = ids.get(className);
+		if(id == null)
+			return 0;
 
-		if(this.couplingClassIn.get(className) != null){
-			this.couplingClassIn = clean(className, this.couplingClassIn);
-			return this.couplingClassIn.get(className).size();
-		}
-		return 0;
+		if(fanInClass[id] == -1)
+			fanInClass[id] = reconciledSize(couplingClassIn.get(id));
+		return fanInClass[id];
 	}
-	
+
 	public int getValueFanOutClass(String className){
+		Integer id = ids.get(className);
+		if(id == null)
+			return 0;
 
-		if(this.couplingClassOut.get(className) != null){
-			this.couplingClassOut = clean(className, this.couplingClassOut);
-			return this.couplingClassOut.get(className).size();
-		}
-		return 0;
+		if(fanOutClass[id] == -1)
+			fanOutClass[id] = reconciledSize(couplingClassOut.get(id));
+		return fanOutClass[id];
 	}
-	
-	public int getValueFanInMethod(String methodName){
 
-		if(this.couplingMethodIn.get(methodName) != null)
-			return this.couplingMethodIn.get(methodName).size();
-		
-		return 0;
+	public int getValueFanInMethod(String methodName){
+		return sizeOf(couplingMethodIn, methodName);
 	}
-	
+
 	public int getValueFanOutMethod(String methodName){
+		return sizeOf(couplingMethodOut, methodName);
+	}
 
-		if(this.couplingMethodOut.get(methodName) != null)
-			return this.couplingMethodOut.get(methodName).size();
-		
-		return 0;
+	private int sizeOf(List<IntIntMap> coupling, String name) {
+		Integer id = ids.get(name);
+		if(id == null || coupling.get(id) == null)
+			return 0;
+		return coupling.get(id).size();
 	}
-	
-	private Map<String, Set<String>> clean(String componentName, Map<String, Set<String>> coupling) {
-		Set<String> singleQualifiedTypes = coupling.get(componentName).stream().filter(x -> !x.contains(".")).collect(Collectors.toSet());
 
-		for(String singleQualifiedType : singleQualifiedTypes) {
-			long count = coupling.get(componentName).stream().filter(x -> x.endsWith("." + singleQualifiedType)).count();
+	private int reconciledSize(IntIntMap coupling) {
+		if(coupling == null)
+			return 0;
+
+		List<String> types = new ArrayList<>(coupling.size());
+		coupling.forEach((value, categories) -> types.add(names.get(value)));
+		return reconciledSize(types);
+	}
+
+	// a type with a simple name (i.e., not resolved) does not count if its fully qualified name is also there
+	static int reconciledSize(Collection<String> types) {
+		List<String> singleQualifiedTypes = new ArrayList<>();
+		Set<String> lastSegments = new HashSet<>();
+		for(String name : types) {
+			int lastDot = name.lastIndexOf('.');
+			if(lastDot == -1)
+				singleQualifiedTypes.add(name);
+			else
+				lastSegments.add(name.substring(lastDot + 1));
+		}
 
-			boolean theSameFullyQualifiedTypeExists = count > 0;
-			if(theSameFullyQualifiedTypeExists)
-				coupling.get(componentName).remove(singleQualifiedType);
+		int size = types.size();
+		for(String singleQualifiedType : singleQualifiedTypes) {
+			if(lastSegments.contains(singleQualifiedType))
+				size--;
 		}
-		
-		return coupling;
+		return size;
 	}
-	
+
+	/**
+	 * @return A copy of the categories of the coupling of each class to each other class
+	 */
 	public Map<String, Map<String, Set<CouplingClassification>>> getClassCouplingCategories(){
-        return this.classCouplingCategories;
+        Map<String, Map<String, Set<CouplingClassification>>> categoriesPerClass = new LinkedHashMap<>();
+        for(int key = 0; key < couplingClassOut.size(); key++) {
+            IntIntMap values = couplingClassOut.get(key);
+            if(values == null)
+                continue;
+
+            String keyName = names.get(key);
+            values.forEach((value, categories) -> {
+                if(categories == 0)
+                    return;
+
+                Set<CouplingClassification> set = EnumSet.noneOf(CouplingClassification.class);
+                for(CouplingClassification category : CouplingClassification.values()) {
+                    if((categories & category.bit()) != 0)
+                        set.add(category);
+                }
+                categoriesPerClass.computeIfAbsent(keyName, k -> new LinkedHashMap<>()).put(names.get(value), set);
+            });
+        }
+        return categoriesPerClass;
     }
-    
-    public static CouplingExtras getInstance(){
-		if(instance == null){
-			instance = new CouplingExtras();
-		}
-		return instance;
-	}
-	
+
 }
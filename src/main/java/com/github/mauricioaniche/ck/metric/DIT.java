@@ -4,6 +4,8 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
+@NeedsBindings
+@DeclarationsOnly
 public class DIT implements CKASTVisitor, ClassLevelMetric {
 
 	int dit = 1; // Object is the father of everyone!
@@ -32,4 +34,9 @@ public class DIT implements CKASTVisitor, ClassLevelMetric {
 		result.setDit(dit);
 	}
 
+	@Override
+	public boolean reset() {
+		dit = 1;
+		return true;
+	}
 }
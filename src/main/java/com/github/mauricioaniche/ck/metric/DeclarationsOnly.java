@@ -0,0 +1,16 @@
+package com.github.mauricioaniche.ck.metric;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The metric only looks at declarations (of types, their supertypes, fields, and methods), never at what is
+ * inside method bodies. When all metrics CK is asked for are like this, method bodies are not even parsed
+ * (see {@link com.github.mauricioaniche.ck.CK#isStructureOnly()}).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DeclarationsOnly {
+}
@@ -4,6 +4,7 @@ import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 
+@DeclarationsOnly
 public class JavadocLines implements CKASTVisitor, MethodLevelMetric {
 
     // we count how many methods we have visited
@@ -29,4 +30,11 @@ public class JavadocLines implements CKASTVisitor, MethodLevelMetric {
     public void setResult(CKMethodResult result) {
         result.setHasJavadoc(hasJavadoc);
     }
+
+    @Override
+    public boolean reset() {
+        methodsVisited = 0;
+        hasJavadoc = false;
+        return true;
+    }
 }
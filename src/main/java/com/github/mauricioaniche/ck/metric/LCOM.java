@@ -1,53 +1,29 @@
 package com.github.mauricioaniche.ck.metric;
 
+import com.github.mauricioaniche.ck.AccessIndex;
 import com.github.mauricioaniche.ck.CKClassResult;
-import org.eclipse.jdt.core.dom.*;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.BitSet;
+import java.util.List;
 
-public class LCOM implements CKASTVisitor, ClassLevelMetric {
+public class LCOM implements CKASTVisitor, ClassLevelMetric, AccessAwareMetric {
 
-	ArrayList<TreeSet<String>> methods = new ArrayList<TreeSet<String>>();
-	Set<String> declaredFields;
-	
-	public LCOM() {
-		this.declaredFields = new HashSet<String>();
-	}
-	
-	public void visit(FieldDeclaration node) {
-		
-		for(Object o : node.fragments()) {
-			VariableDeclarationFragment vdf = (VariableDeclarationFragment) o;
-			declaredFields.add(vdf.getName().toString());
-		}
-		
-	}
-	
-	public void visit(SimpleName node) {
-		String name = node.getFullyQualifiedName();
-		if(declaredFields.contains(name)) {
-			acessed(name);
-		}
-		
-	}
+	private AccessIndex accesses;
 
-	private void acessed(String name) {
-		if(!methods.isEmpty()){
-			methods.get(methods.size() - 1).add(name);
-		}
-	}
-	
-	public void visit(MethodDeclaration node) {
-		methods.add(new TreeSet<String>());
-		
+	@Override
+	public void setAccesses(AccessIndex accesses) {
+		this.accesses = accesses;
 	}
-	
+
 	@Override
 	public void setResult(CKClassResult result) {
-		
+
+		// fields accessed by each method, as bits indexed by the ids of the fields
+		List<BitSet> methods = new ArrayList<>();
+		for(AccessIndex.MethodAccesses method : accesses.getMethods())
+			methods.add(method.getFieldIds());
+
 		/*
 		 * LCOM = |P| - |Q| if |P| - |Q| > 0
 		 * where
@@ -60,12 +36,15 @@ public class LCOM implements CKASTVisitor, ClassLevelMetric {
 		for (int i = 0; i < methods.size(); i++)
 		    for (int j = i + 1; j < methods.size(); j++) {
 		    	
-				TreeSet<?> intersection = (TreeSet<?>)methods.get(i).clone();
-				intersection.retainAll(methods.get(j));
-				if (intersection.size() == 0) lcom++;
+				if (!methods.get(i).intersects(methods.get(j))) lcom++;
 				else lcom--;
 		    }
 		result.setLcom(lcom > 0 ? lcom : 0);
 	}
 
+	@Override
+	public boolean reset() {
+		accesses = null;
+		return true;
+	}
 }
@@ -1,78 +1,21 @@
 package com.github.mauricioaniche.ck.metric;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.TreeSet;
-
-import org.eclipse.jdt.core.dom.FieldDeclaration;
-import org.eclipse.jdt.core.dom.IMethodBinding;
-import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jdt.core.dom.SimpleName;
-import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import java.util.Map;
 
+import com.github.mauricioaniche.ck.AccessIndex;
 import com.github.mauricioaniche.ck.CKClassResult;
-import com.github.mauricioaniche.ck.util.JDTUtils;
 
-public class LCOMNormalized implements CKASTVisitor, ClassLevelMetric {
+public class LCOMNormalized implements CKASTVisitor, ClassLevelMetric, AccessAwareMetric {
 
-	HashMap<String, TreeSet<String>> declaredFields;
-	ArrayList<String> methods;
-	ArrayList<Integer> flags;
-	
-	public LCOMNormalized() {
-		this.declaredFields = new HashMap<>();
-		this.methods = new ArrayList<String>();
-		this.flags = new ArrayList<Integer>();
-	}
-	
-	public void visit(FieldDeclaration node) {
-		
-		for(Object o : node.fragments()) {
-			VariableDeclarationFragment vdf = (VariableDeclarationFragment) o;
-			declaredFields.put(vdf.getName().toString(), new TreeSet<String>());
-		}
-		
-	}
-	
-	public void visit(SimpleName node) {
-		String name = node.getFullyQualifiedName();
-		if(declaredFields.containsKey(name)) {
-			acessed(name);
-		}
-		
-	}
+	private AccessIndex accesses;
 
-	private void acessed(String name) {
-		if(!methods.isEmpty()){
-			this.declaredFields.get(name).add(this.methods.get(this.methods.size() - 1));
-		}
-	}
-	
-	public void visit(MethodDeclaration node) {
-		
-		String currentMethodName = JDTUtils.getMethodFullName(node);
-		
-		if(!this.methods.isEmpty()){
-			if(this.methods.get(this.methods.size() - 1).equals(currentMethodName)){
-				if(this.flags.get(this.flags.size() - 1) == 0){
-					this.flags.set((this.flags.size() - 1), 1);
-				}else{
-					this.methods.add(currentMethodName);
-					this.flags.add(0);
-				}
-			} else{
-				this.methods.add(currentMethodName);
-				this.flags.add(0);
-			}
-		} else {
-			this.methods.add(currentMethodName);
-			this.flags.add(0);
-		}
-		
+	@Override
+	public void setAccesses(AccessIndex accesses) {
+		this.accesses = accesses;
 	}
-	
+
 	@Override
 	public void setResult(CKClassResult result) {
 		
@@ -92,11 +35,39 @@ public class LCOMNormalized implements CKASTVisitor, ClassLevelMetric {
 		float sum = 0;
 		float lcomNormalized = 0;
 		
-		int numberOfAttributes = this.declaredFields.size();
-		int numberOfMethods = this.methods.size();
+		int numberOfAttributes = accesses.getNumberOfFields();
+
+		// methods that access each field, as bits indexed by the ids of the method names
+		BitSet[] accessedBy = new BitSet[numberOfAttributes];
+		for (int field = 0; field < numberOfAttributes; field++)
+			accessedBy[field] = new BitSet();
+
+		// dense ids of the names of the methods of the class
+		Map<String, Integer> methodIds = new HashMap<>();
+		int numberOfMethods = 0;
+		String lastMethod = null;
+		boolean lastMethodSeenTwice = false;
+		for (AccessIndex.MethodAccesses method : accesses.getMethods()) {
+			String methodName = method.getMethodName();
+
+			// a method declared twice in a row is counted once
+			if (methodName.equals(lastMethod) && !lastMethodSeenTwice) {
+				lastMethodSeenTwice = true;
+			} else {
+				numberOfMethods++;
+				lastMethod = methodName;
+				lastMethodSeenTwice = false;
+			}
+
+			int methodId = methodIds.computeIfAbsent(methodName, name -> methodIds.size());
+			BitSet fields = method.getFieldIds();
+			for (int field = fields.nextSetBit(0); field >= 0; field = fields.nextSetBit(field + 1))
+				accessedBy[field].set(methodId);
+		}
 		
-		for (String key : this.declaredFields.keySet())
-			sum = sum + (((float) (numberOfMethods - this.declaredFields.get(key).size())) / numberOfMethods);
+		// float sums depend on their order, so fields are summed in the order of the map of their ids
+		for (int field : accesses.getFieldIds().values())
+			sum = sum + (((float) (numberOfMethods - accessedBy[field].cardinality())) / numberOfMethods);
 		
 		if(numberOfAttributes > 0)
 			lcomNormalized = (((float) 1) * sum) / numberOfAttributes;
@@ -105,4 +76,10 @@ public class LCOMNormalized implements CKASTVisitor, ClassLevelMetric {
 		
 	}	
 	
+
+	@Override
+	public boolean reset() {
+		accesses = null;
+		return true;
+	}
 }
@@ -2,36 +2,57 @@ package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKMethodResult;
 import com.github.mauricioaniche.ck.util.WordCounter;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Initializer;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.github.mauricioaniche.ck.util.WordCounter.removeSpacesAndIdentation;
 
 public class MethodLevelWordCounter implements CKASTVisitor, MethodLevelMetric {
-	private String methodSourceCode;
+	private ASTNode method;
+	// types declared in this method, in the order they were visited; their words do not count
+	private List<ASTNode> localTypes = new ArrayList<>();
 
 	public void visit(MethodDeclaration node) {
-		this.methodSourceCode = removeSpacesAndIdentation(node.toString());
+		this.method = node;
 	}
 
 	public void visit(Initializer node) {
-		this.methodSourceCode = removeSpacesAndIdentation(node.toString());
+		this.method = node;
 	}
 
 	public void visit(TypeDeclaration node) {
-
-		String otherType = removeSpacesAndIdentation(node.toString());
-
-		methodSourceCode = removeSpacesAndIdentation(methodSourceCode.replace(otherType, ""));
+		localTypes.add(node);
 	}
 
 	@Override
 	public void setResult(CKMethodResult result) {
-		int qtyOfUniqueWords = WordCounter.wordsIn(methodSourceCode).size();
+		int qtyOfUniqueWords = WordCounter.uniqueWordsQty(sourceCode());
 
 		result.setUniqueWordsQty(qtyOfUniqueWords);
 	}
 
+	// the code is only printed (and normalized, so that local types can be found in it) once the method is over
+	private String sourceCode() {
+		if (localTypes.isEmpty())
+			return method.toString();
+
+		String methodSourceCode = removeSpacesAndIdentation(method.toString());
+		for (ASTNode localType : localTypes) {
+			String otherType = removeSpacesAndIdentation(localType.toString());
+			methodSourceCode = removeSpacesAndIdentation(methodSourceCode.replace(otherType, ""));
+		}
+		return methodSourceCode;
+	}
 
+	@Override
+	public boolean reset() {
+		method = null;
+		localTypes.clear();
+		return true;
+	}
 }
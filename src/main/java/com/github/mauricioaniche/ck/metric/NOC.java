@@ -11,14 +11,17 @@ import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 import com.github.mauricioaniche.ck.CKClassResult;
+import com.github.mauricioaniche.ck.CKContext;
 
-public class NOC implements CKASTVisitor, ClassLevelMetric{
+@DeclarationsOnly
+public class NOC implements CKASTVisitor, ClassLevelMetric, ContextAwareMetric {
 
 	private String name;
 	private NOCExtras extras;
-	
-	public NOC() {
-		this.extras = NOCExtras.getInstance();
+
+	@Override
+	public void setContext(CKContext context) {
+		this.extras = context.getNocExtras();
 	}
 	
 	@Override
@@ -55,4 +58,9 @@ public class NOC implements CKASTVisitor, ClassLevelMetric{
 		
 	}
 
+	@Override
+	public boolean reset() {
+		name = null;
+		return true;
+	}
 }
@@ -1,46 +1,34 @@
 package com.github.mauricioaniche.ck.metric;
 
-import java.util.HashMap;
+import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class NOCExtras {
+/**
+ * Accumulates the number of children of each class of a single analysis.
+ */
+public class NOCExtras implements Serializable {
+	private static final long serialVersionUID = 1L;
 
-	private Map<String, Integer> toAdd;
-	private static NOCExtras instance; 
+	private final Map<String, Integer> toAdd;
 	
-	private NOCExtras(){
-		toAdd = new HashMap<>();
+	public NOCExtras(){
+		toAdd = new ConcurrentHashMap<>();
 	}
-
-	/**
-	 * Resets the <code>NOCExtras</code> instance.
-	 * This should ONLY be used in tests so that the state of the instance does not carry over
-	 * between different test classes.
-	 */
-    public static void resetInstance() {
-        instance = null;
-    }
 	
 	public void plusOne(String clazz){
 		if(clazz.equals("java.lang.Object"))
 			return;
-		
-		if(!toAdd.containsKey(clazz))
-			toAdd.put(clazz, 0);
-		
-		toAdd.put(clazz, toAdd.get(clazz) + 1);	
+
+		toAdd.merge(clazz, 1, Integer::sum);
 	}
 	
 	public Integer getNocValueByName(String key){
-		if(this.toAdd.get(key) != null)
-			return this.toAdd.get(key);
-		return 0;
+		return toAdd.getOrDefault(key, 0);
 	}
-	
-	public static NOCExtras getInstance(){
-		if(instance == null)
-			instance = new NOCExtras();
-		return instance;
+
+	public void addAll(NOCExtras other) {
+		other.toAdd.forEach((clazz, children) -> toAdd.merge(clazz, children, Integer::sum));
 	}
 	
 }
@@ -5,6 +5,7 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.Modifier;
 
+@NeedsBindings
 public class NOSI implements CKASTVisitor, ClassLevelMetric {
 
 	private int count = 0;
@@ -21,4 +22,9 @@ public class NOSI implements CKASTVisitor, ClassLevelMetric {
 		result.setNosi(count);
 	}
 
+	@Override
+	public boolean reset() {
+		count = 0;
+		return true;
+	}
 }
@@ -0,0 +1,16 @@
+package com.github.mauricioaniche.ck.metric;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The metric has no meaningful value unless bindings are resolved (e.g., the superclasses of a class),
+ * and so it is not calculated at all when CK only parses the syntax (see {@link com.github.mauricioaniche.ck.CK#setSyntaxOnly(boolean)}).
+ * Metrics that can fall back to the names in the code (e.g., CBO) do not need it.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface NeedsBindings {
+}
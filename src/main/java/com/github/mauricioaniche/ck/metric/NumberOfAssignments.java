@@ -5,7 +5,7 @@ import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.Assignment;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
-public class NumberOfAssignments implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfAssignments implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -26,8 +26,19 @@ public class NumberOfAssignments implements CKASTVisitor, ClassLevelMetric, Meth
 
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getAssignmentsQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setAssignmentsQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
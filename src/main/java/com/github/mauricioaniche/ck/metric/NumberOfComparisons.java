@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.InfixExpression;
 
-public class NumberOfComparisons implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfComparisons implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -24,8 +24,19 @@ public class NumberOfComparisons implements CKASTVisitor, ClassLevelMetric, Meth
 		result.setComparisonsQty(qty);
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getComparisonsQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setComparisonsQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
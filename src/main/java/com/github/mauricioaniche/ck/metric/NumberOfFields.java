@@ -9,6 +9,7 @@ import java.util.Set;
 
 import static com.github.mauricioaniche.ck.util.JDTUtils.getVariableName;
 
+@DeclarationsOnly
 public class NumberOfFields implements CKASTVisitor, ClassLevelMetric {
 
 	private Set<String> fieldNames = new HashSet<>();
@@ -67,4 +68,19 @@ public class NumberOfFields implements CKASTVisitor, ClassLevelMetric {
 		result.setNumberOfFinalFields(finalFields);
 		result.setNumberOfSynchronizedFields(synchronizedFields);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public boolean reset() {
+		// the names of the fields are handed to the result
+		fieldNames = new HashSet<>();
+		fields = 0;
+		staticFields = 0;
+		publicFields = 0;
+		privateFields = 0;
+		protectedFields = 0;
+		defaultFields = 0;
+		finalFields = 0;
+		synchronizedFields = 0;
+		return true;
+	}
+}
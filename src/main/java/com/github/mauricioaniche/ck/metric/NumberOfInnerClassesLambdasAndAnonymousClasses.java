@@ -56,4 +56,13 @@ public class NumberOfInnerClassesLambdasAndAnonymousClasses implements CKASTVisi
 		result.setInnerClassesQty(innerClassesQty);
 		result.setLambdasQty(lambdasQty);
 	}
+
+	@Override
+	public boolean reset() {
+		anonymousClassesQty = 0;
+		innerClassesQty = 0;
+		lambdasQty = 0;
+		firstFound = null;
+		return true;
+	}
 }
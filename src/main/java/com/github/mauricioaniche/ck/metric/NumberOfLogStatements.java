@@ -2,11 +2,16 @@ package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
-import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.ExpressionStatement;
-import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.*;
 
-public class NumberOfLogStatements implements CKASTVisitor, MethodLevelMetric, ClassLevelMetric {
+import java.util.regex.Pattern;
+
+public class NumberOfLogStatements implements CKASTVisitor, AggregatableMetric {
+
+    private static final Pattern LOG_STATEMENT = Pattern.compile(".*\\.(at)?(info|warn|debug|error|trace)\\(.*");
+    private static final String[] LOG_METHODS = {
+            "info", "warn", "debug", "error", "trace",
+            "atInfo", "atWarn", "atDebug", "atError", "atTrace"};
 
     private int qty = 0;
 
@@ -24,29 +29,65 @@ public class NumberOfLogStatements implements CKASTVisitor, MethodLevelMetric, C
      */
     public static boolean isLogStatement(String line) {
         line = line.toLowerCase().trim();
-        return line.matches(".*\\.(at)?(info|warn|debug|error|trace)\\(.*");
+        return LOG_STATEMENT.matcher(line).matches();
     }
 
     @Override
     public void visit(MethodInvocation node) {
         ASTNode parentNode = node.getParent();
-        if (parentNode instanceof ExpressionStatement) {
-            ExpressionStatement expr = (ExpressionStatement) parentNode;
-            String rawExpr = expr.toString();
-            if (NumberOfLogStatements.isLogStatement(rawExpr)) {
-                qty++;
+        boolean statement = parentNode instanceof ExpressionStatement
+                || (parentNode instanceof LambdaExpression && ((LambdaExpression) parentNode).getBody() == node);
+        if (statement && isLogCall(node)) {
+            qty++;
+        }
+    }
+
+    /**
+     * Tells whether a call, or one of the calls it is chained to (e.g. log.atInfo().log(...)),
+     * invokes a log method on something. Calls without a receiver (e.g. info(...)) are not log calls.
+     */
+    private static boolean isLogCall(Expression expression) {
+        while (true) {
+            if (expression instanceof MethodInvocation) {
+                MethodInvocation invocation = (MethodInvocation) expression;
+                if (invocation.getExpression() != null && isLogMethod(invocation.getName().getIdentifier()))
+                    return true;
+                expression = invocation.getExpression();
+            } else if (expression instanceof SuperMethodInvocation) {
+                return isLogMethod(((SuperMethodInvocation) expression).getName().getIdentifier());
+            } else {
+                return false;
             }
         }
     }
 
+    private static boolean isLogMethod(String name) {
+        for (String method : LOG_METHODS) {
+            if (method.equalsIgnoreCase(name))
+                return true;
+        }
+        return false;
+    }
+
     @Override
     public void setResult(CKMethodResult result) {
         result.setLogStatementsQty(qty);
     }
 
+    @Override
+    public void addMethod(CKMethodResult method) {
+        qty += method.getLogStatementsQty();
+    }
+
     @Override
     public void setResult(CKClassResult result) {
         result.setLogStatementsQty(qty);
 
     }
+
+    @Override
+    public boolean reset() {
+        qty = 0;
+        return true;
+    }
 }
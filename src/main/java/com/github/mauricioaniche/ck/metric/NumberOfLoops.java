@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.*;
 
-public class NumberOfLoops implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfLoops implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -30,8 +30,19 @@ public class NumberOfLoops implements CKASTVisitor, ClassLevelMetric, MethodLeve
 
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getLoopQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setLoopQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
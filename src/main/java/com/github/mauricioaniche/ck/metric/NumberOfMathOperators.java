@@ -6,7 +6,7 @@ import org.eclipse.jdt.core.dom.InfixExpression;
 
 import java.util.Arrays;
 
-public class NumberOfMathOperators implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfMathOperators implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -30,8 +30,19 @@ public class NumberOfMathOperators implements CKASTVisitor, ClassLevelMetric, Me
 		result.setMathOperationsQty(qty);
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getMathOperationsQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setMathOperationsQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
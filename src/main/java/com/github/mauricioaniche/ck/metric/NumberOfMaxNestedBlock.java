@@ -2,17 +2,18 @@ package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
+import com.github.mauricioaniche.ck.util.IntStack;
 import org.eclipse.jdt.core.dom.*;
 
-import java.util.Stack;
-
 public class NumberOfMaxNestedBlock implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 
 	private int current = 0;
 	private int max = 0;
-	private Stack<ASTNode> currentNode = new Stack<>();
-	private Stack<Boolean> blocks = new Stack<>();
-	private Stack<Boolean> nodes = new Stack<>();
+	// types of the nodes we are in (see ASTNode#getNodeType())
+	private IntStack currentNode = new IntStack();
+	// how much each block (or node without a block) added to the current nesting, 1 or 0
+	private IntStack blocks = new IntStack();
+	private IntStack nodes = new IntStack();
 
 	@Override
 	public void visit(Block node) {
@@ -22,26 +23,26 @@ public class NumberOfMaxNestedBlock implements CKASTVisitor, ClassLevelMetric, M
 		// note that blocks might not always exist, and that's why we check
 		// for their existence at every node later on...
 		// if they do not exist, we +1 in the node.
-		if(currentNode.empty() || !(currentNode.peek() instanceof SwitchCase)) {
+		if(currentNode.isEmpty() || currentNode.peek() != ASTNode.SWITCH_CASE) {
 			plusOne();
-			blocks.push(true);
+			blocks.push(1);
 		} else {
-			blocks.push(false);
+			blocks.push(0);
 		}
 
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 	}
 
 	@Override
 	public void visit(ForStatement node) {
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 
 		boolean containsBlock = containsBlock(node.getBody());
 		if(!containsBlock) {
 			plusOne();
-			nodes.push(true);
+			nodes.push(1);
 		} else {
-			nodes.push(false);
+			nodes.push(0);
 		}
 
 	}
@@ -49,93 +50,91 @@ public class NumberOfMaxNestedBlock implements CKASTVisitor, ClassLevelMetric, M
 	@Override
 	public void visit(EnhancedForStatement node) {
 
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 
 		boolean containsBlock = containsBlock(node.getBody());
 		if(!containsBlock) {
 			plusOne();
-			nodes.push(true);
+			nodes.push(1);
 		} else {
-			nodes.push(false);
+			nodes.push(0);
 		}
 
 	}
 
 	@Override
 	public void visit(DoStatement node) {
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 
 		boolean containsBlock = containsBlock(node.getBody());
 		if(!containsBlock) {
 			plusOne();
-			nodes.push(true);
+			nodes.push(1);
 		} else {
-			nodes.push(false);
+			nodes.push(0);
 		}
 
 	}
 
 	@Override
 	public void visit(WhileStatement node) {
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 
 		boolean containsBlock = containsBlock(node.getBody());
 		if(!containsBlock) {
 			plusOne();
-			nodes.push(true);
+			nodes.push(1);
 		} else {
-			nodes.push(false);
+			nodes.push(0);
 		}
 	}
 
 	@Override
 	public void visit(SwitchStatement node) {
 
-		currentNode.push(node);
-		nodes.push(true);
+		currentNode.push(node.getNodeType());
+		nodes.push(1);
 		plusOne();
 	}
 
 	@Override
 	public void visit(SwitchCase node) {
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 	}
 
 
 	@Override
 	public void visit(CatchClause node) {
 
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 
 		boolean containsBlock = containsBlock(node.getBody());
 		if(!containsBlock) {
 			plusOne();
-			nodes.push(true);
+			nodes.push(1);
 		} else {
-			nodes.push(false);
+			nodes.push(0);
 		}
 
 	}
 
 	public void visit(IfStatement node) {
 
-		currentNode.push(node);
+		currentNode.push(node.getNodeType());
 
 		boolean containsBlock = containsBlock(node.getThenStatement());
 		if(!containsBlock) {
 			plusOne();
-			nodes.push(true);
+			nodes.push(1);
 		} else {
-			nodes.push(false);
+			nodes.push(0);
 		}
 	}
 
 
 	@Override
 	public void endVisit(Block node) {
-		Boolean pop = blocks.pop();
-		if(pop)
-			current--;
+		current -= blocks.pop();
 
 		currentNode.pop();
 	}
@@ -156,9 +155,7 @@ public class NumberOfMaxNestedBlock implements CKASTVisitor, ClassLevelMetric, M
 	}
 
 	private void popBlock() {
-		Boolean pop = nodes.pop();
-		if(pop)
-			current--;
+		current -= nodes.pop();
 	}
 
 	@Override
@@ -202,4 +199,14 @@ public class NumberOfMaxNestedBlock implements CKASTVisitor, ClassLevelMetric, M
 	public void setResult(CKClassResult result) {
 		result.setMaxNestedBlocks(Math.max(0, max - 1));
 	}
+
+	@Override
+	public boolean reset() {
+		current = 0;
+		max = 0;
+		currentNode.clear();
+		blocks.clear();
+		nodes.clear();
+		return true;
+	}
 }
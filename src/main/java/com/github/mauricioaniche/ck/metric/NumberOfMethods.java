@@ -4,6 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Modifier;
 
+@DeclarationsOnly
 public class NumberOfMethods implements CKASTVisitor, ClassLevelMetric {
 
 	private int methods;
@@ -67,4 +68,18 @@ public class NumberOfMethods implements CKASTVisitor, ClassLevelMetric {
 		result.setNumberOfSynchronizedMethods(synchronizedMethods);
 
 	}
+
+	@Override
+	public boolean reset() {
+		methods = 0;
+		staticMethods = 0;
+		publicMethods = 0;
+		privateMethods = 0;
+		protectedMethods = 0;
+		defaultMethods = 0;
+		abstractMethods = 0;
+		finalMethods = 0;
+		synchronizedMethods = 0;
+		return true;
+	}
 }
@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.NumberLiteral;
 
-public class NumberOfNumbers implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfNumbers implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -18,8 +18,19 @@ public class NumberOfNumbers implements CKASTVisitor, ClassLevelMetric, MethodLe
 		result.setNumbersQty(qty);
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getNumbersQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setNumbersQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
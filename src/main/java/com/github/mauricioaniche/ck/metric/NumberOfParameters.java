@@ -3,6 +3,7 @@ package com.github.mauricioaniche.ck.metric;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 
+@DeclarationsOnly
 public class NumberOfParameters implements CKASTVisitor, MethodLevelMetric{
 
 	private int qty = 0;
@@ -16,5 +17,9 @@ public class NumberOfParameters implements CKASTVisitor, MethodLevelMetric{
 		result.setParametersQty(qty);
 	}
 
-
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
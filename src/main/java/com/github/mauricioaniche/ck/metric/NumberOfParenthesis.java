@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.ParenthesizedExpression;
 
-public class NumberOfParenthesis implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfParenthesis implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -18,8 +18,19 @@ public class NumberOfParenthesis implements CKASTVisitor, ClassLevelMetric, Meth
 
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getParenthesizedExpsQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setParenthesizedExpsQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.ReturnStatement;
 
-public class NumberOfReturns implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfReturns implements CKASTVisitor, AggregatableMetric {
 	private int qty = 0;
 
 	@Override
@@ -17,9 +17,20 @@ public class NumberOfReturns implements CKASTVisitor, ClassLevelMetric, MethodLe
 		qty++;
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getReturnQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setReturnQty(qty);
 
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
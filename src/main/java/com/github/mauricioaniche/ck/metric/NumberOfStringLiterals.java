@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.StringLiteral;
 
-public class NumberOfStringLiterals implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfStringLiterals implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -17,8 +17,19 @@ public class NumberOfStringLiterals implements CKASTVisitor, ClassLevelMetric, M
 		result.setStringLiteralsQty(qty);
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getStringLiteralsQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setStringLiteralsQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
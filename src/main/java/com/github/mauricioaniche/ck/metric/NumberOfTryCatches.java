@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.TryStatement;
 
-public class NumberOfTryCatches implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfTryCatches implements CKASTVisitor, AggregatableMetric {
 
 	private int qty = 0;
 
@@ -18,8 +18,19 @@ public class NumberOfTryCatches implements CKASTVisitor, ClassLevelMetric, Metho
 
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getTryCatchQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setTryCatchQty(qty);
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
@@ -4,7 +4,7 @@ import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
-public class NumberOfVariables implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class NumberOfVariables implements CKASTVisitor, AggregatableMetric {
 	private int qty = 0;
 
 	@Override
@@ -16,10 +16,21 @@ public class NumberOfVariables implements CKASTVisitor, ClassLevelMetric, Method
 		qty++;
 	}
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		qty += method.getVariablesQty();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 
 		result.setVariablesQty(qty);
 
 	}
+
+	@Override
+	public boolean reset() {
+		qty = 0;
+		return true;
+	}
 }
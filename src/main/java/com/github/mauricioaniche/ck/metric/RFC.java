@@ -1,22 +1,29 @@
 package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
+import com.github.mauricioaniche.ck.CKContext;
 import com.github.mauricioaniche.ck.CKMethodResult;
 import com.github.mauricioaniche.ck.util.JDTUtils;
 import org.eclipse.jdt.core.dom.*;
 import java.util.HashSet;
 
-public class RFC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class RFC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric, ContextAwareMetric {
 	private HashSet<String> methodInvocations = new HashSet<String>();
+	private CKContext context;
+
+	@Override
+	public void setContext(CKContext context) {
+		this.context = context;
+	}
 
 	public void visit(MethodInvocation node) {
 		String methodName = JDTUtils.getQualifiedMethodFullName(node);
-		methodInvocations.add(methodName);
+		methodInvocations.add(context.intern(methodName));
 	}
 
 	public void visit(SuperMethodInvocation node) {
 		String methodName = JDTUtils.getQualifiedMethodFullName(node);
-		methodInvocations.add(methodName);
+		methodInvocations.add(context.intern(methodName));
 	}
 
 	@Override
@@ -29,4 +36,11 @@ public class RFC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 		result.setRfc(methodInvocations.size());
 		result.setMethodInvocations(methodInvocations);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public boolean reset() {
+		// the invocations of a method are handed to its result
+		methodInvocations = new HashSet<String>();
+		return true;
+	}
+}
@@ -0,0 +1,17 @@
+package com.github.mauricioaniche.ck.metric;
+
+/**
+ * Class and method level metrics are instantiated once per class (or method) they measure, unless they can be
+ * reset: then, the visitor reuses them for the next class (or method) instead.
+ */
+public interface ResettableMetric {
+
+	/**
+	 * Forgets the class (or method) the metric measured, so that the same instance can measure another one,
+	 * as if it had just been instantiated. Collections already handed to a result must be replaced, not cleared.
+	 * @return false if the metric cannot be reused (the default), in which case it is instantiated again
+	 */
+	default boolean reset() {
+		return false;
+	}
+}
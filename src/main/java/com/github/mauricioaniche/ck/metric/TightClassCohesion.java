@@ -2,113 +2,60 @@ package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
-import com.google.common.collect.Sets;
-import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
+import com.github.mauricioaniche.ck.util.MethodGraph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Map;
 
 //Calculates the tight and loose class cohesion for a class.
 //For more details see: https://www.aivosto.com/project/help/pm-oo-cohesion.html#TCC_LCC
 @RunAfter(metrics={RFC.class, MethodLevelFieldUsageCount.class, MethodInvocationsLocal.class})
 public class TightClassCohesion implements CKASTVisitor, ClassLevelMetric {
-    private HashMap<String, Set<String>> accessedFields = new HashMap<>();
-
-    //Two methods are directly connected if:
-    //1. both access the same class-level variable
-    //2. their call trees access the same class-level variable (only within the class)
-    private Set<ImmutablePair<String, String>> getDirectConnections(CKClassResult result){
-        for (CKMethodResult method : result.getMethods()){
-            accessedFields.put(method.getMethodName(), method.getFieldsAccessed());
-        }
 
-        HashMap<String, Set<String>> allAccessedFields = new HashMap<>();
-        for (CKMethodResult method : result.getVisibleMethods()){
-            Set<String> allLocalFields = collectAccessedFields(method);
-            allLocalFields.addAll(method.getFieldsAccessed());
-            allAccessedFields.put(method.getMethodName(), allLocalFields);
+    //Two methods are directly connected if both access the same class-level variable
+    //The connections of each visible method are indexed by the position of the methods in the given list
+    private BitSet[] getDirectConnections(List<CKMethodResult> visibleMethods){
+        //fields get dense ids, so that the fields of two methods are intersected without copying them
+        Map<String, Integer> fieldIds = new HashMap<>();
+        BitSet[] accessedFields = new BitSet[visibleMethods.size()];
+        for (int i = 0; i < visibleMethods.size(); i++){
+            accessedFields[i] = new BitSet();
+            for (String field : visibleMethods.get(i).getFieldsAccessed()){
+                accessedFields[i].set(fieldIds.computeIfAbsent(field, f -> fieldIds.size()));
+            }
         }
 
-        Set<ImmutablePair<String, String>> directConnections = new HashSet<>();
-        for(String firstKey : allAccessedFields.keySet()){
-            for(String secondKey : allAccessedFields.keySet()){
-                Set<String> accessedFieldsFirst = Sets.newHashSet(allAccessedFields.get(firstKey));
-                Set<String> accessedFieldsSecond = allAccessedFields.get(secondKey);
-                accessedFieldsFirst.retainAll(accessedFieldsSecond);
-                if(!firstKey.equals(secondKey) && accessedFieldsFirst.size() > 0){
-                    directConnections.add(new ImmutablePair<String, String>(firstKey, secondKey));
+        BitSet[] directConnections = new BitSet[visibleMethods.size()];
+        for (int i = 0; i < visibleMethods.size(); i++){
+            directConnections[i] = new BitSet();
+            for (int j = 0; j < visibleMethods.size(); j++){
+                if(i != j && accessedFields[i].intersects(accessedFields[j])){
+                    directConnections[i].set(j);
                 }
             }
         }
         return directConnections;
     }
 
-    //Collect all accessed fields from the invocation tree of a method
-    private Set<String> collectAccessedFields(CKMethodResult method){
-        Set<String> allLocalInvocations = method.getMethodInvocationsIndirectLocal().keySet();
-
-        Set<String> allLocalFields = new HashSet<>();
-        for (String invocation : allLocalInvocations){
-            Set<String> currentFields = accessedFields.get(invocation);
-            if(currentFields != null)
-                allLocalFields.addAll(currentFields);
-        }
-
-        return allLocalFields;
-    }
-
     //Two methods are indirectly connected if:
     //1. they are not directly connected
     //2. they are connected via other methods, e.g. X -> Y -> Z
-    private Set<ImmutablePair<String, String>> getIndirectConnections(CKClassResult result, Set<ImmutablePair<String, String>> directConnections){
-        //convert the direct connections into a Map in order to simplify the usage
-        HashMap<String, Set<String>> directConnectionsMap = new HashMap<>();
-        for(CKMethodResult method : result.getMethods()){
-            directConnectionsMap.put(method.getMethodName(), Sets.newHashSet(Sets.newHashSet(ArrayUtils.EMPTY_STRING_ARRAY)));
-        }
-        for(ImmutablePair<String, String> pair : directConnections){
-            directConnectionsMap.get(pair.left).add(pair.right);
+    //Connections go both ways, so all the methods of a connected component are connected to each other
+    private int countAllConnections(BitSet[] directConnections){
+        int[] component = MethodGraph.components(directConnections);
+        int[] methodsInComponent = new int[directConnections.length];
+        for (int c : component){
+            methodsInComponent[c]++;
         }
 
-        //extract all direct and indirect connections between methods from the direct connections
-        HashMap<String, Set<String>> indirectConnectionsMap = new HashMap<>();
-        for (CKMethodResult method : result.getVisibleMethods()){
-            Set<String> localConnections = extractConnections(method.getMethodName(), new HashSet<>(), directConnectionsMap);
-            indirectConnectionsMap.put(method.getMethodName(), localConnections);
+        int connections = 0;
+        for (int methods : methodsInComponent){
+            connections += methods * (methods - 1);
         }
-
-        //map the indirect connections into connection pairs
-        Set<ImmutablePair<String, String>> indirectConnections = new HashSet<>();
-        for(String key : indirectConnectionsMap.keySet()){
-            indirectConnections.addAll(indirectConnectionsMap.get(key).stream()
-                    .filter(right -> !key.equals(right))
-                    .map(right -> new ImmutablePair<String, String>(key, right))
-                    .collect(Collectors.toSet()));
-        }
-        //remove all direct connections
-        indirectConnections.removeAll(directConnections);
-        return indirectConnections;
-    }
-
-    //Recursively extract all indirect connections between methods starting with the given method
-    //Explored contains all previously explored connections
-    //connections contains all direct method connections of interest
-    private Set<String> extractConnections(String currentConnection, Set<String> explored, HashMap<String, Set<String>> connections){
-        explored.add(currentConnection);
-
-        //only explore connections that were not previously explored
-        Set<String> nextConnections = connections.get(currentConnection).stream()
-                .filter(connection -> !explored.contains(connection))
-                .collect(Collectors.toSet());
-        explored.addAll(nextConnections);
-        for (String nextConnection : nextConnections){
-            explored.addAll(extractConnections(nextConnection, explored, connections));
-        }
-
-        //Stops when all invocations are explored: there are no more invocations to be explored
-        return explored;
+        return connections;
     }
 
     public void setResult(CKClassResult result) {
@@ -121,12 +68,20 @@ public class TightClassCohesion implements CKASTVisitor, ClassLevelMetric {
             float np = result.getVisibleMethods().size() * (result.getVisibleMethods().size() - 1);
 
             //number of direct connections (number of edges in the connection graph) in this class
-            Set<ImmutablePair<String, String>> directConnections = getDirectConnections(result);
-            result.setTightClassCohesion(directConnections.size() / np);
+            BitSet[] directConnections = getDirectConnections(new ArrayList<>(result.getVisibleMethods()));
+            int direct = 0;
+            for (BitSet connections : directConnections){
+                direct += connections.cardinality();
+            }
+            result.setTightClassCohesion(direct / np);
 
-            //number of indirect connections in this class
-            Set<ImmutablePair<String, String>> indirectConnections = getIndirectConnections(result, directConnections);
-            result.setLooseClassCohesion((directConnections.size() + indirectConnections.size()) / np);
+            //number of direct and indirect connections in this class
+            result.setLooseClassCohesion(countAllConnections(directConnections) / np);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean reset() {
+        return true;
+    }
+}
@@ -2,19 +2,31 @@ package com.github.mauricioaniche.ck.metric;
 
 import com.github.mauricioaniche.ck.CKClassResult;
 import com.github.mauricioaniche.ck.CKMethodResult;
-import org.apache.commons.lang3.StringUtils;
+import com.github.mauricioaniche.ck.util.SubtreeWalker;
 import org.eclipse.jdt.core.dom.*;
 
-import java.util.*;
+import java.util.Set;
 
-public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
+public class WMC implements CKASTVisitor, AggregatableMetric {
 
 	protected int cc = 0;
 	// this stack helps us in knowing whether we could evaluate InfixExpressions or not
 	// if we count the conditions directly in the branch node (e.g., if, for, ...), then
 	// do not need to (re-)count the Infix agains
 	// this is needed for some inline conditions, e.g., boolean x = a > 10;
-	private LinkedList<ASTNode> stack = new LinkedList<>();
+	// only its depth matters, so the nodes themselves are not kept
+	private int stack = 0;
+
+	// operators of the inline conditions that count
+	private static final Set<InfixExpression.Operator> COMPARISONS = Set.of(
+			InfixExpression.Operator.LESS,
+			InfixExpression.Operator.GREATER,
+			InfixExpression.Operator.LESS_EQUALS,
+			InfixExpression.Operator.GREATER_EQUALS,
+			InfixExpression.Operator.EQUALS,
+			InfixExpression.Operator.NOT_EQUALS);
+
+	private final ConditionCounter conditions = new ConditionCounter();
 
 	@Override
 	public void visit(MethodDeclaration node) {
@@ -27,14 +39,14 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
     public void visit(ForStatement node) {
 	    increaseCCFromExpression(node.getExpression());
 
-    	stack.push(node);
+    	stack++;
     }
 
 	@Override
     public void visit(EnhancedForStatement node) {
 	    increaseCCFromExpression(node.getExpression());
 
-	    stack.push(node);
+	    stack++;
     }
     
     @Override
@@ -42,21 +54,21 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 
 		increaseCCFromExpression(node.getExpression());
 
-		stack.push(node);
+		stack++;
     }
     
     @Override
     public void visit(DoStatement node) {
 	    increaseCCFromExpression(node.getExpression());
 
-	    stack.push(node);
+	    stack++;
     }
 
     @Override
     public void visit(WhileStatement node) {
 	    increaseCCFromExpression(node.getExpression());
 
-	    stack.push(node);
+	    stack++;
     }
     
     @Override
@@ -66,25 +78,14 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 			increaseCCFromExpression(node.getExpression());
 		}
 
-	    stack.push(node);
+	    stack++;
     }
 
 	@Override
 	public void visit(InfixExpression node) {
 
-		if(stack.isEmpty()) {
-			Set<InfixExpression.Operator> operatorsToConsider = new HashSet<InfixExpression.Operator>() {{
-				add(InfixExpression.Operator.LESS);
-				add(InfixExpression.Operator.GREATER);
-				add(InfixExpression.Operator.LESS_EQUALS);
-				add(InfixExpression.Operator.GREATER_EQUALS);
-				add(InfixExpression.Operator.EQUALS);
-				add(InfixExpression.Operator.NOT_EQUALS);
-			}};
-
-			if (operatorsToConsider.contains(node.getOperator()))
-				increaseCc();
-		}
+		if(stack == 0 && COMPARISONS.contains(node.getOperator()))
+			increaseCc();
 	}
 
     @Override
@@ -101,47 +102,47 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
     public void visit(IfStatement node) {
 
 	    increaseCCFromExpression(node.getExpression());
-	    stack.push(node);
+	    stack++;
     }
 
 	@Override
 	public void endVisit(ForStatement node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(EnhancedForStatement node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(ConditionalExpression node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(DoStatement node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(WhileStatement node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(SwitchCase node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(IfStatement node) {
-		stack.pop();
+		stack--;
 	}
 
 	@Override
 	public void endVisit(MethodDeclaration node) {
-		stack.clear();
+		stack = 0;
 	}
 
 	private int increaseCCFromExpression(Expression expression) {
@@ -154,12 +155,41 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 			increaseCc();
 		}
 
-		String expr = expression.toString().replace("&&", "&").replace("||", "|");
-		int ands = StringUtils.countMatches(expr, "&");
-		int ors = StringUtils.countMatches(expr, "|");
+		int conditions = this.conditions.count(expression);
+		increaseCc(conditions);
+		return conditions;
+	}
+
+	/**
+	 * Counts the '&&', '||', '&' and '|' operators of a condition. The bodies of lambdas and anonymous classes
+	 * in the condition are left out, as the metric visits their branches on its own.
+	 */
+	private static class ConditionCounter extends SubtreeWalker {
+
+		private int conditions;
+
+		int count(Expression expression) {
+			conditions = 0;
+			walk(expression);
+			return conditions;
+		}
 
-		increaseCc(ands + ors);
-		return ands + ors;
+		@Override
+		protected boolean visit(ASTNode node) {
+			switch (node.getNodeType()) {
+				case ASTNode.INFIX_EXPRESSION:
+					InfixExpression.Operator operator = ((InfixExpression) node).getOperator();
+					if(operator == InfixExpression.Operator.CONDITIONAL_AND || operator == InfixExpression.Operator.CONDITIONAL_OR
+							|| operator == InfixExpression.Operator.AND || operator == InfixExpression.Operator.OR)
+						conditions += 1 + ((InfixExpression) node).extendedOperands().size();
+					return true;
+				case ASTNode.LAMBDA_EXPRESSION:
+				case ASTNode.ANONYMOUS_CLASS_DECLARATION:
+					return false;
+				default:
+					return true;
+			}
+		}
 	}
 
 
@@ -186,6 +216,11 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
     	cc += qtd;
     }
 
+	@Override
+	public void addMethod(CKMethodResult method) {
+		cc += method.getWmc();
+	}
+
 	@Override
 	public void setResult(CKClassResult result) {
 		result.setWmc(cc);
@@ -195,4 +230,11 @@ public class WMC implements CKASTVisitor, ClassLevelMetric, MethodLevelMetric {
 	public void setResult(CKMethodResult result) {
 		result.setWmc(cc);
 	}
+
+    @Override
+    public boolean reset() {
+        cc = 0;
+        stack = 0;
+        return true;
+    }
 }
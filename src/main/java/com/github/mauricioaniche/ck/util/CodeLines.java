@@ -0,0 +1,95 @@
+package com.github.mauricioaniche.ck.util;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Comment;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.List;
+
+/**
+ * Lines of code (i.e., lines that are neither blank nor only comments) of a compilation unit.
+ *
+ * The source of the file is scanned only once, skipping the comments JDT found in it. Afterwards,
+ * the lines of code of any node (a class, a method, and also the classes and methods around it)
+ * are counted without going over its source again.
+ */
+public class CodeLines {
+
+	private final CompilationUnit cu;
+
+	// number of lines of code before each line (lines start at 1)
+	private final int[] codeLinesBefore;
+
+	/**
+	 * @param cu The compilation unit, parsed from the given source
+	 * @param source The source code of the compilation unit, exactly as JDT parsed it
+	 */
+	public CodeLines(CompilationUnit cu, char[] source) {
+		this.cu = cu;
+
+		boolean[] hasCode = new boolean[countLines(source) + 1];
+
+		@SuppressWarnings("unchecked")
+		List<Comment> comments = cu.getCommentList();
+		int nextComment = 0;
+		int nextCommentStart = comments.isEmpty() ? -1 : comments.get(0).getStartPosition();
+		int commentEnd = -1;
+
+		int line = 1;
+		for (int i = 0; i < source.length; i++) {
+			// comments come sorted by their position
+			while (i == nextCommentStart) {
+				Comment comment = comments.get(nextComment++);
+				commentEnd = Math.max(commentEnd, comment.getStartPosition() + comment.getLength());
+				nextCommentStart = nextComment < comments.size() ? comments.get(nextComment).getStartPosition() : -1;
+			}
+
+			char c = source[i];
+			if (c == '\n' || c == '\r') {
+				// \r\n is a single line break
+				if (c == '\r' && i + 1 < source.length && source[i + 1] == '\n')
+					i++;
+				line++;
+				continue;
+			}
+
+			if (i >= commentEnd && !Character.isWhitespace(c))
+				hasCode[line] = true;
+		}
+
+		this.codeLinesBefore = new int[hasCode.length + 1];
+		for (int i = 1; i < hasCode.length; i++)
+			codeLinesBefore[i + 1] = codeLinesBefore[i] + (hasCode[i] ? 1 : 0);
+	}
+
+	/**
+	 * @return The lines of code the node spans, including lines it shares with code around it
+	 */
+	public int count(ASTNode node) {
+		if (node.getLength() == 0)
+			return 0;
+
+		int firstLine = lineOf(node.getStartPosition());
+		int lastLine = lineOf(node.getStartPosition() + node.getLength() - 1);
+		return codeLinesBefore[lastLine + 1] - codeLinesBefore[firstLine];
+	}
+
+	private int lineOf(int position) {
+		int lastLine = codeLinesBefore.length - 2;
+		int line = cu.getLineNumber(position);
+		// positions out of the source, e.g., of nodes made up by the recovery of syntax errors
+		return line < 1 ? lastLine : Math.min(line, lastLine);
+	}
+
+	private static int countLines(char[] source) {
+		int lines = 1;
+		for (int i = 0; i < source.length; i++) {
+			if (source[i] == '\n' || source[i] == '\r') {
+				if (source[i] == '\r' && i + 1 < source.length && source[i + 1] == '\n')
+					i++;
+				lines++;
+			}
+		}
+		return lines;
+	}
+}
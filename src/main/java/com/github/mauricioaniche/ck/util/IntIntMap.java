@@ -0,0 +1,106 @@
+package com.github.mauricioaniche.ck.util;
+
+import java.io.Serializable;
+
+/**
+ * A map from non-negative ints to ints, kept in two primitive arrays (open addressing, linear probing).
+ * Used where a map of boxed values per entry would cost more memory than the data it holds.
+ * Not thread-safe.
+ */
+public class IntIntMap implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	// keys are stored plus one, so that 0 marks an empty slot
+	private int[] keys;
+	private int[] values;
+	private int size;
+
+	public IntIntMap() {
+		this.keys = new int[4];
+		this.values = new int[4];
+	}
+
+	public interface EntryConsumer {
+		void accept(int key, int value);
+	}
+
+	/**
+	 * Sets the given bits in the value of the key, adding the key (with no bits) if it is not there yet.
+	 *
+	 * @return true if the key was added
+	 */
+	public boolean or(int key, int bits) {
+		int slot = slotOf(key);
+		if (keys[slot] != 0) {
+			values[slot] |= bits;
+			return false;
+		}
+
+		keys[slot] = key + 1;
+		values[slot] = bits;
+		if (++size * 4 > keys.length * 3)
+			grow();
+		return true;
+	}
+
+	public void put(int key, int value) {
+		int slot = slotOf(key);
+		values[slot] = value;
+		if (keys[slot] == 0) {
+			keys[slot] = key + 1;
+			if (++size * 4 > keys.length * 3)
+				grow();
+		}
+	}
+
+	/**
+	 * @return The value of the key, or the given default if the key is not there
+	 */
+	public int get(int key, int defaultValue) {
+		int slot = slotOf(key);
+		return keys[slot] != 0 ? values[slot] : defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		return keys[slotOf(key)] != 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0)
+				consumer.accept(keys[i] - 1, values[i]);
+		}
+	}
+
+	// the slot of the key, or the empty slot where it would go
+	private int slotOf(int key) {
+		int mask = keys.length - 1;
+		int hash = key * 0x9E3779B9;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (keys[slot] != 0 && keys[slot] != key + 1)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slotOf(oldKeys[i] - 1);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.github.mauricioaniche.ck.util;
+
+import java.util.Arrays;
+
+/**
+ * A stack of ints, kept in a primitive array that grows as needed.
+ * Used by visitors that push and pop at every node they visit, so that no value is boxed (and no
+ * lock is taken, as in {@link java.util.Stack}) per node.
+ * Not thread-safe.
+ */
+public class IntStack {
+
+	private int[] values = new int[16];
+	private int size;
+
+	public void push(int value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, size * 2);
+		values[size++] = value;
+	}
+
+	public int pop() {
+		if (size == 0)
+			throw new IllegalStateException("The stack is empty");
+		return values[--size];
+	}
+
+	public int peek() {
+		if (size == 0)
+			throw new IllegalStateException("The stack is empty");
+		return values[size - 1];
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+}
@@ -4,11 +4,62 @@ import org.eclipse.jdt.core.dom.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class JDTUtils {
 
+	// names of the bindings of the partition that is being parsed in the current thread, if any
+	private static final ThreadLocal<BindingNames> bindingNames = new ThreadLocal<>();
+
+	// JDT keeps one binding per type and method while it parses a partition, so bindings are keyed by identity
+	private static class BindingNames {
+		private final Map<ITypeBinding, String> qualifiedTypeNames = new IdentityHashMap<>();
+		private final Map<IMethodBinding, String> signatures = new IdentityHashMap<>();
+		private final Map<IMethodBinding, String> methodFullNames = new IdentityHashMap<>();
+		private final Map<IMethodBinding, String> qualifiedMethodFullNames = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Parses a partition (in the current thread) while the names of its bindings are cached, so that
+	 * the name of a type or method used all over the partition (e.g., a logger call) is built only once.
+	 * Bindings are only meaningful within the partition they come from, so the cache goes away with it.
+	 */
+	public static void cachingBindingNames(Runnable parsing) {
+		BindingNames previous = bindingNames.get();
+		bindingNames.set(new BindingNames());
+		try {
+			parsing.run();
+		} finally {
+			if(previous == null)
+				bindingNames.remove();
+			else
+				bindingNames.set(previous);
+		}
+	}
+
+	private static <B> String cached(Function<BindingNames, Map<B, String>> cache, B binding, Function<B, String> name) {
+		BindingNames names = bindingNames.get();
+		if(names == null)
+			return name.apply(binding);
+
+		Map<B, String> cachedNames = cache.apply(names);
+		String cachedName = cachedNames.get(binding);
+		if(cachedName == null) {
+			cachedName = name.apply(binding);
+			cachedNames.put(binding, cachedName);
+		}
+		return cachedName;
+	}
+
+	//Get the fully qualified name of a type, e.g. java.util.List<java.lang.String>
+	public static String getQualifiedName(ITypeBinding binding) {
+		return cached(names -> names.qualifiedTypeNames, binding, ITypeBinding::getQualifiedName);
+	}
+
 	/**
 	 * If the method has a body, we can get the starting line of the method, ignoring any possible
 	 * Javadoc at the top of it.
@@ -32,8 +83,7 @@ public class JDTUtils {
 
 	//Get the method name with parameter count and types, e.g. m1/1[int]
 	public static String getMethodFullName(IMethodBinding binding) {
-		String methodName = binding.getName();
-		return methodName + "/" + getMethodSignature(binding);
+		return cached(names -> names.methodFullNames, binding, b -> b.getName() + "/" + getMethodSignature(b));
 	}
 
 	public static String getMethodFullName(MethodDeclaration node) {
@@ -46,11 +96,13 @@ public class JDTUtils {
 
 	//Get the fully qualified method name with parameter count and types, e.g. rfc.GO.m1/1[int]
 	public static String getQualifiedMethodFullName(IMethodBinding binding){
-		String methodName = binding.getName();
-		if(binding.getDeclaringClass() != null){
-			methodName = binding.getDeclaringClass().getQualifiedName() + "." + binding.getName();
-		}
-		return methodName + "/" + getMethodSignature(binding);
+		return cached(names -> names.qualifiedMethodFullNames, binding, b -> {
+			String methodName = b.getName();
+			if(b.getDeclaringClass() != null){
+				methodName = getQualifiedName(b.getDeclaringClass()) + "." + b.getName();
+			}
+			return methodName + "/" + getMethodSignature(b);
+		});
 	}
 
 	//Get the fully qualified method name with parameter count and types, e.g. rfc.GO.m1/1[int]
@@ -85,13 +137,17 @@ public class JDTUtils {
 
 	//Get the signature of a method with parameter count and types, e.g. 1[int]
 	public static String getMethodSignature(IMethodBinding node){
+		return cached(names -> names.signatures, node, JDTUtils::methodSignature);
+	}
+
+	private static String methodSignature(IMethodBinding node){
 		int parameterCount = node.getParameterTypes()==null ? 0 : node.getParameterTypes().length;
 		List<String> parameterTypes = new ArrayList<>();
 
 		if(parameterCount > 0) {
 			for(ITypeBinding binding : node.getParameterTypes()) {
 
-				String v = binding.getQualifiedName();
+				String v = getQualifiedName(binding);
 
 				parameterTypes.add(v);
 			}
@@ -114,7 +170,7 @@ public class JDTUtils {
 				if(binding == null || binding.isRecovered())
 					v = parameter.getType().toString();
 				else
-					v = binding.getQualifiedName();
+					v = getQualifiedName(binding);
 
 				if(parameter.isVarargs()) v+="[]";
 
@@ -134,12 +190,15 @@ public class JDTUtils {
 
 	private static String formatSignature(List<String> parameters){
 		int parameterCount = parameters.size();
-		return String.format("%d%s%s%s",
-				parameterCount,
-				(parameterCount > 0 ? "[" : ""),
-				(parameterCount > 0 ? String.join(",", parameters) : ""),
-				(parameterCount > 0 ? "]" : "")
-		);
+		if(parameterCount == 0)
+			return "0";
+
+		StringBuilder signature = new StringBuilder().append(parameterCount).append('[');
+		for(int i = 0; i < parameterCount; i++) {
+			if(i > 0) signature.append(',');
+			signature.append(parameters.get(i));
+		}
+		return signature.append(']').toString();
 	}
 
 	//get the simple name from the fragments of a variable or field declaration, e.g. [a=10] -> a
@@ -0,0 +1,176 @@
+package com.github.mauricioaniche.ck.util;
+
+import com.github.mauricioaniche.ck.CKMethodResult;
+
+import java.util.*;
+
+/**
+ * The local method invocations of a class (i.e., invocations of methods of the class itself).
+ *
+ * Methods get dense ids, in the order they are declared, and the invocations of each method are kept as
+ * a bitset of these ids, so that exploring the graph neither filters nor copies sets of names. The graph is
+ * explored without recursion, so that long chains of invocations do not overflow the stack.
+ */
+public class MethodGraph {
+
+	private final String[] names;
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	// local methods each method invokes, including itself in case of recursion
+	private final BitSet[] invocations;
+
+	public MethodGraph(Collection<CKMethodResult> methods) {
+		List<CKMethodResult> sorted = new ArrayList<>(methods);
+		sorted.sort(Comparator.comparingInt(CKMethodResult::getStartLine).thenComparing(CKMethodResult::getQualifiedMethodName));
+
+		List<String> names = new ArrayList<>();
+		for (CKMethodResult method : sorted) {
+			if (ids.putIfAbsent(method.getQualifiedMethodName(), names.size()) == null)
+				names.add(method.getQualifiedMethodName());
+		}
+		this.names = names.toArray(new String[0]);
+
+		this.invocations = new BitSet[this.names.length];
+		for (int i = 0; i < this.names.length; i++)
+			invocations[i] = new BitSet();
+
+		// methods with the same name (e.g., in code that does not compile) share their invocations
+		for (CKMethodResult method : sorted) {
+			int id = ids.get(method.getQualifiedMethodName());
+			for (String invoked : method.getMethodInvocations()) {
+				Integer invokedId = ids.get(invoked);
+				if (invokedId != null)
+					invocations[id].set(invokedId);
+			}
+		}
+	}
+
+	/**
+	 * @return The local methods the given method directly invokes
+	 */
+	public Set<String> localInvocations(String method) {
+		return namesOf(invocations[ids.get(method)]);
+	}
+
+	/**
+	 * Explores the local invocations starting at the given method, depth first, in the order methods are declared.
+	 * A method is only explored further if it invokes some method that was not explored yet.
+	 *
+	 * @return The explored methods, and the methods each of them led to
+	 */
+	public Map<String, Set<String>> indirectLocalInvocations(String method) {
+		Map<String, Set<String>> explored = new HashMap<>();
+		BitSet exploredIds = new BitSet();
+
+		Deque<Step> steps = new ArrayDeque<>();
+		explore(ids.get(method), explored, exploredIds, steps);
+		while (!steps.isEmpty()) {
+			Step step = steps.peek();
+			int next = step.next.nextSetBit(step.cursor);
+			if (next < 0) {
+				steps.pop();
+			} else {
+				step.cursor = next + 1;
+				explore(next, explored, exploredIds, steps);
+			}
+		}
+
+		return explored;
+	}
+
+	private void explore(int method, Map<String, Set<String>> explored, BitSet exploredIds, Deque<Step> steps) {
+		BitSet next = (BitSet) invocations[method].clone();
+		next.andNot(exploredIds);
+		next.clear(method);
+		if (next.isEmpty())
+			return;
+
+		explored.put(names[method], namesOf(next));
+		exploredIds.set(method);
+		steps.push(new Step(next));
+	}
+
+	/**
+	 * Strongly connected components of a graph, with Tarjan's algorithm (without recursion, so that
+	 * long chains of methods do not overflow the stack).
+	 *
+	 * @param edges The nodes each node points to
+	 * @return The component of each node, numbered from 0. Components are numbered in reverse topological
+	 *         order, i.e., a component only points to components with lower numbers. For a symmetric graph,
+	 *         these are its connected components.
+	 */
+	public static int[] components(BitSet[] edges) {
+		int n = edges.length;
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] component = new int[n];
+		Arrays.fill(index, -1);
+		Arrays.fill(component, -1);
+
+		int[] stack = new int[n];
+		int stackSize = 0;
+		int[] path = new int[n];
+		int[] cursor = new int[n];
+		int pathSize = 0;
+		int nextIndex = 0;
+		int components = 0;
+
+		for (int root = 0; root < n; root++) {
+			if (index[root] != -1)
+				continue;
+
+			index[root] = low[root] = nextIndex++;
+			stack[stackSize++] = root;
+			path[pathSize++] = root;
+
+			while (pathSize > 0) {
+				int node = path[pathSize - 1];
+				int next = edges[node].nextSetBit(cursor[node]);
+
+				if (next >= 0) {
+					cursor[node] = next + 1;
+					if (index[next] == -1) {
+						index[next] = low[next] = nextIndex++;
+						stack[stackSize++] = next;
+						path[pathSize++] = next;
+					} else if (component[next] == -1) {
+						low[node] = Math.min(low[node], index[next]);
+					}
+					continue;
+				}
+
+				pathSize--;
+				if (low[node] == index[node]) {
+					int member;
+					do {
+						member = stack[--stackSize];
+						component[member] = components;
+					} while (member != node);
+					components++;
+				}
+				if (pathSize > 0) {
+					int parent = path[pathSize - 1];
+					low[parent] = Math.min(low[parent], low[node]);
+				}
+			}
+		}
+
+		return component;
+	}
+
+	private Set<String> namesOf(BitSet methods) {
+		Set<String> result = new HashSet<>();
+		for (int i = methods.nextSetBit(0); i >= 0; i = methods.nextSetBit(i + 1))
+			result.add(names[i]);
+		return result;
+	}
+
+	private static class Step {
+		private final BitSet next;
+		private int cursor;
+
+		private Step(BitSet next) {
+			this.next = next;
+		}
+	}
+}
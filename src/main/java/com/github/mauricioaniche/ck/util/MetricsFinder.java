@@ -1,35 +1,133 @@
 package com.github.mauricioaniche.ck.util;
 
-import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
-import com.github.mauricioaniche.ck.metric.MethodLevelMetric;
-import com.github.mauricioaniche.ck.metric.RunAfter;
-import com.github.mauricioaniche.ck.metric.VariableOrFieldMetric;
+import com.github.mauricioaniche.ck.metric.*;
 import org.reflections.Reflections;
 
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class MetricsFinder {
 
-	private static List<Class<? extends MethodLevelMetric>> methodLevelClasses = null;
-	private static List<Class<? extends ClassLevelMetric>> classLevelClasses = null;
-	private DependencySorter sorter;
+	// all metrics in the metric package, already sorted by their dependencies.
+	// these are shared by all finders, whatever metrics they were asked for.
+	private static volatile List<Class<? extends MethodLevelMetric>> methodLevelClasses = null;
+	private static volatile List<Class<? extends ClassLevelMetric>> classLevelClasses = null;
+
+	// the columns of the output files, and the metrics that calculate them.
+	// columns that CK calculates by itself (e.g., loc) need no metric.
+	private static final Map<String, List<Class<?>>> METRICS_PER_COLUMN = new HashMap<>();
+	static {
+		column("file");
+		column("class");
+		column("type");
+		column("method");
+		column("constructor");
+		column("line");
+		column("loc");
+		column("modifiers");
+		column("cbo", CBO.class);
+		column("cboModified", CBO.class);
+		column("fanin", CBO.class);
+		column("fanout", CBO.class);
+		column("wmc", WMC.class);
+		column("dit", DIT.class);
+		column("noc", NOC.class);
+		column("rfc", RFC.class);
+		column("lcom", LCOM.class);
+		column("lcom*", LCOMNormalized.class);
+		column("tcc", TightClassCohesion.class);
+		column("lcc", TightClassCohesion.class);
+		column("totalMethodsQty", NumberOfMethods.class);
+		column("staticMethodsQty", NumberOfMethods.class);
+		column("publicMethodsQty", NumberOfMethods.class);
+		column("privateMethodsQty", NumberOfMethods.class);
+		column("protectedMethodsQty", NumberOfMethods.class);
+		column("defaultMethodsQty", NumberOfMethods.class);
+		column("visibleMethodsQty");
+		column("abstractMethodsQty", NumberOfMethods.class);
+		column("finalMethodsQty", NumberOfMethods.class);
+		column("synchronizedMethodsQty", NumberOfMethods.class);
+		column("totalFieldsQty", NumberOfFields.class);
+		column("staticFieldsQty", NumberOfFields.class);
+		column("publicFieldsQty", NumberOfFields.class);
+		column("privateFieldsQty", NumberOfFields.class);
+		column("protectedFieldsQty", NumberOfFields.class);
+		column("defaultFieldsQty", NumberOfFields.class);
+		column("finalFieldsQty", NumberOfFields.class);
+		column("synchronizedFieldsQty", NumberOfFields.class);
+		column("nosi", NOSI.class);
+		column("returnQty", NumberOfReturns.class);
+		column("returnsQty", NumberOfReturns.class);
+		column("loopQty", NumberOfLoops.class);
+		column("comparisonsQty", NumberOfComparisons.class);
+		column("tryCatchQty", NumberOfTryCatches.class);
+		column("parenthesizedExpsQty", NumberOfParenthesis.class);
+		column("stringLiteralsQty", NumberOfStringLiterals.class);
+		column("numbersQty", NumberOfNumbers.class);
+		column("assignmentsQty", NumberOfAssignments.class);
+		column("mathOperationsQty", NumberOfMathOperators.class);
+		column("variablesQty", NumberOfVariables.class);
+		column("parametersQty", NumberOfParameters.class);
+		column("methodsInvokedQty", RFC.class);
+		column("methodsInvokedLocalQty", MethodInvocationsLocal.class);
+		column("methodsInvokedIndirectLocalQty", MethodInvocationsLocal.class);
+		column("maxNestedBlocksQty", NumberOfMaxNestedBlock.class);
+		column("anonymousClassesQty", NumberOfInnerClassesLambdasAndAnonymousClasses.class);
+		column("innerClassesQty", NumberOfInnerClassesLambdasAndAnonymousClasses.class);
+		column("lambdasQty", NumberOfInnerClassesLambdasAndAnonymousClasses.class);
+		column("uniqueWordsQty", ClassLevelWordCounter.class, MethodLevelWordCounter.class);
+		column("logStatementsQty", NumberOfLogStatements.class);
+		column("hasJavaDoc", JavadocLines.class);
+	}
+
+	// columns that CK calculates by itself, but out of the method bodies too
+	private static final Set<String> COLUMNS_OF_BODIES = new HashSet<>(Arrays.asList("loc"));
+
+	private static void column(String name, Class<?>... metrics) {
+		METRICS_PER_COLUMN.put(name.toLowerCase(), Arrays.asList(metrics));
+	}
+
+	// null means all metrics
+	private final Set<Class<?>> selected;
+
+	// the metrics of this finder, in the order they have to run.
+	// they are computed once, in the constructor, as the threads that parse partitions share the finder.
+	private final List<Class<? extends MethodLevelMetric>> methodLevelWithVariablesAndFields;
+	private final List<Class<? extends MethodLevelMetric>> methodLevelWithoutVariablesAndFields;
+	private final List<Class<? extends ClassLevelMetric>> classLevel;
 
 	public MetricsFinder(DependencySorter sorter) {
-		this.sorter = sorter;
+		this(sorter, null);
 	}
 
 	public MetricsFinder() {
 		this(new DependencySorter());
 	}
 
-	public List<MethodLevelMetric> allMethodLevelMetrics(boolean variablesAndFields) {
-		if(methodLevelClasses == null)
-			loadMethodLevelClasses(variablesAndFields);
+	/**
+	 * @param metrics The columns (e.g., "wmc" or "lcom*") that should be calculated, or null for all of them.
+	 *                The metrics that calculate them, and the metrics these depend upon, are the only ones
+	 *                that are instantiated.
+	 */
+	public MetricsFinder(Collection<String> metrics) {
+		this(new DependencySorter(), metrics);
+	}
+
+	public MetricsFinder(DependencySorter sorter, Collection<String> metrics) {
+		this.selected = metrics == null ? null : metricsFor(metrics);
+
+		List<Class<? extends MethodLevelMetric>> methodLevel = loadMethodLevelClasses(sorter);
+		this.methodLevelWithVariablesAndFields = select(methodLevel, true);
+		this.methodLevelWithoutVariablesAndFields = select(methodLevel, false);
+		this.classLevel = select(loadClassLevelClasses(sorter), true);
+	}
 
+	public List<MethodLevelMetric> allMethodLevelMetrics(boolean variablesAndFields) {
 		try {
 			ArrayList<MethodLevelMetric> metrics = new ArrayList<>();
-			for (Class<? extends MethodLevelMetric> aClass : methodLevelClasses) {
+			for (Class<? extends MethodLevelMetric> aClass : methodLevelClasses(variablesAndFields)) {
 				metrics.add(aClass.getDeclaredConstructor().newInstance());
 			}
 
@@ -40,13 +138,9 @@ public class MetricsFinder {
 	}
 
 	public List<ClassLevelMetric> allClassLevelMetrics() {
-
-		if(classLevelClasses == null)
-			loadClassLevelClasses();
-
 		try {
 			ArrayList<ClassLevelMetric> metrics = new ArrayList<>();
-			for (Class<? extends ClassLevelMetric> aClass : classLevelClasses) {
+			for (Class<? extends ClassLevelMetric> aClass : classLevelClasses()) {
 				metrics.add(aClass.getDeclaredConstructor().newInstance());
 			}
 
@@ -56,23 +150,129 @@ public class MetricsFinder {
 		}
 	}
 
-	private void loadMethodLevelClasses(boolean variablesAndFields) {
-		try {
-			Reflections reflections = new Reflections("com.github.mauricioaniche.ck.metric");
+	/**
+	 * @return The columns (lower-cased) that are only calculated by metrics that need bindings (see {@link NeedsBindings})
+	 */
+	public static Set<String> columnsNeedingBindings() {
+		return columnsWhere(metrics -> metrics.stream().allMatch(metric -> metric.isAnnotationPresent(NeedsBindings.class)));
+	}
 
-			methodLevelClasses = sorter.sort(reflections.getSubTypesOf(MethodLevelMetric.class).stream()
-					.filter(x -> variablesAndFields || !Arrays.asList(x.getInterfaces()).contains(VariableOrFieldMetric.class))
-					.collect(Collectors.toList()));
+	/**
+	 * @return The columns (lower-cased) that are calculated by at least one metric that looks inside method bodies
+	 *         (i.e., that is not {@link DeclarationsOnly}), together with the ones CK calculates out of them (e.g., loc)
+	 */
+	public static Set<String> columnsNeedingBodies() {
+		Set<String> columns = columnsWhere(metrics -> metrics.stream().anyMatch(metric -> !metric.isAnnotationPresent(DeclarationsOnly.class)));
+		columns.addAll(COLUMNS_OF_BODIES);
+		return columns;
+	}
+
+	/**
+	 * Columns that no metric calculates (e.g., class or method) do not count: the classes declared in method
+	 * bodies (i.e., anonymous and local classes) are only found with them, so they are not left out when
+	 * nothing else would be gained.
+	 * @param columns Columns of the output files, case insensitive
+	 * @return Whether these columns need at least one metric, and all metrics that calculate them (and all metrics
+	 *         they run after) are {@link DeclarationsOnly}, so that method bodies are not needed at all
+	 */
+	public static boolean onlyDeclarations(Collection<String> columns) {
+		if(columns.stream().anyMatch(column -> COLUMNS_OF_BODIES.contains(column.trim().toLowerCase())))
+			return false;
 
+		Set<Class<?>> metrics = metricsFor(columns);
+		return !metrics.isEmpty() && metrics.stream().allMatch(metric -> metric.isAnnotationPresent(DeclarationsOnly.class));
+	}
+
+	// columns that CK calculates by itself are never included
+	private static Set<String> columnsWhere(Predicate<List<Class<?>>> condition) {
+		Set<String> columns = new HashSet<>();
+		METRICS_PER_COLUMN.forEach((column, metrics) -> {
+			if(!metrics.isEmpty() && condition.test(metrics))
+				columns.add(column);
+		});
+		return columns;
+	}
+
+	/**
+	 * @param columns Columns of the output files, case insensitive
+	 * @return The metrics that calculate these columns, together with all metrics they run after
+	 */
+	public static Set<Class<?>> metricsFor(Collection<String> columns) {
+		Set<Class<?>> metrics = new HashSet<>();
+		for (String column : columns) {
+			List<Class<?>> metricsOfColumn = METRICS_PER_COLUMN.get(column.trim().toLowerCase());
+			if(metricsOfColumn == null)
+				throw new IllegalArgumentException("Unknown metric: " + column);
+
+			metricsOfColumn.forEach(metric -> addWithDependencies(metric, metrics));
+		}
+		return metrics;
+	}
+
+	/**
+	 * @param column A column of the output files, in any case
+	 * @return Its lower-cased name, the same in the class and method files (the class file calls it returnQty,
+	 *         the method file returnsQty)
+	 */
+	public static String canonicalColumn(String column) {
+		String name = column.trim().toLowerCase();
+		return name.equals("returnsqty") ? "returnqty" : name;
+	}
+
+	private static void addWithDependencies(Class<?> metric, Set<Class<?>> metrics) {
+		if(!metrics.add(metric))
+			return;
+
+		RunAfter runAfter = metric.getAnnotation(RunAfter.class);
+		if(runAfter != null)
+			Arrays.stream(runAfter.metrics()).forEach(dependency -> addWithDependencies(dependency, metrics));
+	}
+
+	private List<Class<? extends MethodLevelMetric>> methodLevelClasses(boolean variablesAndFields) {
+		return variablesAndFields ? methodLevelWithVariablesAndFields : methodLevelWithoutVariablesAndFields;
+	}
+
+	private List<Class<? extends ClassLevelMetric>> classLevelClasses() {
+		return classLevel;
+	}
+
+	// keeps the order of the sorted list, which is still valid for any subset of it
+	private <T> List<Class<? extends T>> select(List<Class<? extends T>> all, boolean variablesAndFields) {
+		return all.stream()
+				.filter(x -> selected == null || selected.contains(x))
+				.filter(x -> variablesAndFields || !Arrays.asList(x.getInterfaces()).contains(VariableOrFieldMetric.class))
+				.collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+	}
+
+	// several threads might ask for metrics at the same time when partitions are parsed in parallel
+	private static synchronized List<Class<? extends MethodLevelMetric>> loadMethodLevelClasses(DependencySorter sorter) {
+		if(methodLevelClasses != null)
+			return methodLevelClasses;
+
+		try {
+			Reflections reflections = new Reflections("com.github.mauricioaniche.ck.metric");
+			methodLevelClasses = sorter.sort(concreteClasses(reflections.getSubTypesOf(MethodLevelMetric.class)));
+			return methodLevelClasses;
 		} catch(Exception e) {
 			throw new RuntimeException("Could not find method level metrics. Something is really wrong", e);
 		}
 	}
 
-	private void loadClassLevelClasses() {
+	// leaves out interfaces that extend the metric interfaces (e.g., AggregatableMetric)
+	private static <T> List<Class<? extends T>> concreteClasses(Set<Class<? extends T>> metrics) {
+		return metrics.stream()
+				.filter(x -> !x.isInterface() && !Modifier.isAbstract(x.getModifiers()))
+				.collect(Collectors.toList());
+	}
+
+	private static synchronized List<Class<? extends ClassLevelMetric>> loadClassLevelClasses(DependencySorter sorter) {
+		if(classLevelClasses != null)
+			return classLevelClasses;
+
 		try {
 			Reflections reflections = new Reflections("com.github.mauricioaniche.ck.metric");
-			classLevelClasses = sorter.sort(new ArrayList<>(reflections.getSubTypesOf(ClassLevelMetric.class)));
+			classLevelClasses = sorter.sort(concreteClasses(reflections.getSubTypesOf(ClassLevelMetric.class)));
+			return classLevelClasses;
 		} catch(Exception e) {
 			throw new RuntimeException("Could not find class level metrics. Something is really wrong", e);
 		}
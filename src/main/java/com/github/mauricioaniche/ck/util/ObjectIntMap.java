@@ -0,0 +1,161 @@
+package com.github.mauricioaniche.ck.util;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A map from objects to ints, kept in an array of keys and an array of primitive values
+ * (open addressing, linear probing), so that no Integer is boxed per entry. Keys cannot be null,
+ * and entries cannot be removed one by one. Not thread-safe.
+ *
+ * @see #asMap() to read it as a regular {@link Map}
+ */
+public class ObjectIntMap<K> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Object[] keys;
+	private int[] values;
+	private int size;
+
+	public ObjectIntMap() {
+		this.keys = new Object[4];
+		this.values = new int[4];
+	}
+
+	public interface EntryConsumer<K> {
+		void accept(K key, int value);
+	}
+
+	/**
+	 * @return The value of the key, or the given default if the key is not there
+	 */
+	public int get(K key, int defaultValue) {
+		int slot = slotOf(key);
+		return keys[slot] != null ? values[slot] : defaultValue;
+	}
+
+	public void put(K key, int value) {
+		int slot = slotOf(key);
+		values[slot] = value;
+		if (keys[slot] == null) {
+			keys[slot] = key;
+			if (++size * 4 > keys.length * 3)
+				grow();
+		}
+	}
+
+	public boolean containsKey(Object key) {
+		return keys[slotOf(key)] != null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all entries, but keeps the arrays, so that the map can be filled again without allocating
+	 */
+	public void clear() {
+		Arrays.fill(keys, null);
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<K> consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null)
+				consumer.accept((K) keys[i], values[i]);
+		}
+	}
+
+	/**
+	 * @return A read-only view of this map, which boxes values only as they are read
+	 */
+	public Map<K, Integer> asMap() {
+		return new MapView();
+	}
+
+	// the slot of the key, or the empty slot where it would go
+	private int slotOf(Object key) {
+		int mask = keys.length - 1;
+		int hash = key.hashCode() * 0x9E3779B9;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (keys[slot] != null && !keys[slot].equals(key))
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void grow() {
+		Object[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new Object[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = slotOf(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private class MapView extends AbstractMap<K, Integer> implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key != null && ObjectIntMap.this.containsKey(key);
+		}
+
+		@Override
+		public Integer get(Object key) {
+			if (key == null)
+				return null;
+			int slot = slotOf(key);
+			return keys[slot] != null ? values[slot] : null;
+		}
+
+		@Override
+		public Set<Entry<K, Integer>> entrySet() {
+			return new AbstractSet<Entry<K, Integer>>() {
+				@Override
+				public int size() {
+					return size;
+				}
+
+				@Override
+				public Iterator<Entry<K, Integer>> iterator() {
+					return new Iterator<Entry<K, Integer>>() {
+						private int next = nextSlot(0);
+
+						@Override
+						public boolean hasNext() {
+							return next < keys.length;
+						}
+
+						@Override
+						@SuppressWarnings("unchecked")
+						public Entry<K, Integer> next() {
+							if (!hasNext())
+								throw new NoSuchElementException();
+							Entry<K, Integer> entry = new SimpleImmutableEntry<>((K) keys[next], values[next]);
+							next = nextSlot(next + 1);
+							return entry;
+						}
+					};
+				}
+			};
+		}
+
+		private int nextSlot(int from) {
+			while (from < keys.length && keys[from] == null)
+				from++;
+			return from;
+		}
+	}
+}
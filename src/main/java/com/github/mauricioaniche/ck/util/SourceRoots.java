@@ -0,0 +1,153 @@
+package com.github.mauricioaniche.ck.util;
+
+import org.apache.log4j.Logger;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The source roots of a project (e.g., src/main/java), i.e., the directories where its packages start.
+ * They are what JDT looks into for the types a partition uses but does not declare.
+ *
+ * The root of a file is inferred from its package declaration: the directory of a.b.C is the root plus a/b.
+ * Files whose directories do not match their packages (and files in the default package) have their own
+ * directories as roots, and roots outside of the project are left out.
+ *
+ * The roots are kept per file, together with when the file was last modified, so that inferring the roots
+ * again (i.e., in the next run, see {@link com.github.mauricioaniche.ck.CKCache#loadSourceRoots()}) only reads
+ * the files that changed since then.
+ * Not thread-safe: each analysis infers its roots with an instance of its own.
+ */
+public class SourceRoots implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static Logger log = Logger.getLogger(SourceRoots.class);
+
+	// tokens that can only come after the package declaration
+	private static final Set<Integer> DECLARATIONS = new HashSet<>(Arrays.asList(ITerminalSymbols.TokenNameimport,
+			ITerminalSymbols.TokenNameclass, ITerminalSymbols.TokenNameinterface, ITerminalSymbols.TokenNameenum,
+			ITerminalSymbols.TokenNameSEMICOLON));
+
+	// path of the file -> the root of its package
+	private final Map<String, Root> roots = new HashMap<>();
+
+	private static class Root implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final long lastModified;
+		private final String dir;
+
+		Root(long lastModified, String dir) {
+			this.lastModified = lastModified;
+			this.dir = dir;
+		}
+	}
+
+	/**
+	 * @param project The directory of the project
+	 * @param javaFiles All java files of the project
+	 * @return The source roots of these files, sorted
+	 */
+	public String[] infer(String project, String[] javaFiles) {
+		Path projectDir = Paths.get(project).toAbsolutePath().normalize();
+
+		Map<String, Root> inferred = new HashMap<>();
+		int read = 0;
+		for(String javaFile : javaFiles) {
+			String path = Paths.get(javaFile).toAbsolutePath().normalize().toString();
+			long lastModified = new File(path).lastModified();
+
+			Root root = roots.get(path);
+			if(root == null || root.lastModified != lastModified) {
+				root = new Root(lastModified, rootOf(Paths.get(path)));
+				read++;
+			}
+			inferred.put(path, root);
+		}
+
+		// files that are gone are forgotten
+		roots.clear();
+		roots.putAll(inferred);
+		log.debug("Read the packages of " + read + " out of " + javaFiles.length + " files");
+
+		return roots.values().stream()
+				.map(root -> root.dir)
+				.distinct()
+				.filter(dir -> Paths.get(dir).startsWith(projectDir))
+				.sorted()
+				.toArray(String[]::new);
+	}
+
+	private static String rootOf(Path javaFile) {
+		Path dir = javaFile.getParent();
+		String packageName = packageOf(javaFile);
+		if(packageName.isEmpty())
+			return dir.toString();
+
+		// goes up one directory per segment of the package, as long as they match
+		String[] segments = packageName.split("\\.");
+		Path root = dir;
+		for(int i = segments.length - 1; i >= 0; i--) {
+			if(root == null || root.getFileName() == null || !root.getFileName().toString().equals(segments[i]))
+				return dir.toString();
+			root = root.getParent();
+		}
+		return root == null ? dir.toString() : root.toString();
+	}
+
+	/**
+	 * @return The package the file declares, or an empty string if it is in the default package
+	 *         (or it cannot be read)
+	 */
+	static String packageOf(Path javaFile) {
+		try {
+			return packageOf(new String(Files.readAllBytes(javaFile), StandardCharsets.UTF_8).toCharArray());
+		} catch(IOException e) {
+			log.debug("Could not read " + javaFile + ": " + e.getMessage());
+			return "";
+		}
+	}
+
+	static String packageOf(char[] source) {
+		IScanner scanner = ToolFactory.createScanner(false, false, false, JavaCore.VERSION_11);
+		scanner.setSource(source);
+
+		try {
+			// the package declaration comes before anything else, except comments and annotations
+			int token;
+			while((token = scanner.getNextToken()) != ITerminalSymbols.TokenNameEOF) {
+				if(token == ITerminalSymbols.TokenNamepackage)
+					return packageName(scanner);
+				if(DECLARATIONS.contains(token))
+					return "";
+			}
+		} catch(InvalidInputException e) {
+			// a broken file, that JDT will also complain about
+		}
+		return "";
+	}
+
+	// names and dots up to the semicolon, whatever tokens the names are (e.g., 'module' can be a keyword)
+	private static String packageName(IScanner scanner) throws InvalidInputException {
+		StringBuilder name = new StringBuilder();
+		int token;
+		while((token = scanner.getNextToken()) != ITerminalSymbols.TokenNameSEMICOLON) {
+			if(token == ITerminalSymbols.TokenNameEOF)
+				return "";
+			name.append(scanner.getCurrentTokenSource());
+		}
+		return name.toString();
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.mauricioaniche.ck.util;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+
+import java.util.List;
+
+/**
+ * Walks all nodes of a subtree, going down from each node to its children (in the order of their properties).
+ * Unlike {@link ASTNode#accept(org.eclipse.jdt.core.dom.ASTVisitor)}, which creates a cursor for every list of
+ * children, it allocates nothing, and so it can be used at every node a metric visits.
+ * Not thread-safe, if the subclass keeps state.
+ */
+public abstract class SubtreeWalker {
+
+	/**
+	 * @return true if the children of the node should be walked as well
+	 */
+	protected abstract boolean visit(ASTNode node);
+
+	public void walk(ASTNode node) {
+		if (!visit(node))
+			return;
+
+		List<?> properties = node.structuralPropertiesForType();
+		for (int i = 0; i < properties.size(); i++) {
+			StructuralPropertyDescriptor property = (StructuralPropertyDescriptor) properties.get(i);
+			if (property.isChildProperty()) {
+				ASTNode child = (ASTNode) node.getStructuralProperty(property);
+				if (child != null)
+					walk(child);
+			} else if (property.isChildListProperty()) {
+				List<?> children = (List<?>) node.getStructuralProperty(property);
+				for (int j = 0; j < children.size(); j++)
+					walk((ASTNode) children.get(j));
+			}
+		}
+	}
+}
@@ -1,7 +1,6 @@
 package com.github.mauricioaniche.ck.util;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class WordCounter {
 
@@ -65,71 +64,196 @@ public class WordCounter {
 	}
 
 
-	public static Set<String> wordsIn(String fullString) {
-		String[] cleanString = fullString
-				.replace("\t", " ")
-				.replace("\n", " ")
-				.replace("\r", " ")
-				.replace("(", " ")
-				.replace(")", " ")
-				.replace("{", " ")
-				.replace("}", " ")
-				.replace("=", " ")
-				.replace(">", " ")
-				.replace(">", " ")
-				.replace("&", " ")
-				.replace("|", " ")
-				.replace("!", " ")
-				.replace("+", " ")
-				.replace("*", " ")
-				.replace("/", " ")
-				.replace("-", " ")
-				.replace(";", " ")
-				.split(" ");
-
-		List<String> strings = Arrays.stream(cleanString).filter(word -> !javaKeywords.contains(word))
-				.filter(word -> !word.isEmpty())
-				.filter(word -> word.matches("\\w*"))
-				.filter(word -> !word.matches("[0-9]*"))
-				.collect(Collectors.toList());
+	// keywords, per length, so that tokens are checked without creating strings
+	private static final char[][][] KEYWORDS_BY_LENGTH;
 
-		HashSet<String> words = new HashSet<>();
-		for(String string : strings) {
-			words.addAll(breakString(string));
-		}
+	static {
+		int maxLength = javaKeywords.stream().mapToInt(String::length).max().orElse(0);
+		List<List<char[]>> byLength = new ArrayList<>();
+		for (int i = 0; i <= maxLength; i++)
+			byLength.add(new ArrayList<>());
+		javaKeywords.forEach(keyword -> byLength.get(keyword.length()).add(keyword.toCharArray()));
+
+		KEYWORDS_BY_LENGTH = new char[maxLength + 1][][];
+		for (int i = 0; i <= maxLength; i++)
+			KEYWORDS_BY_LENGTH[i] = byLength.get(i).toArray(new char[0][]);
+	}
 
+	private interface WordSink {
+		void add(char[] text, int from, int to);
+	}
+
+	public static Set<String> wordsIn(String fullString) {
+		HashSet<String> words = new HashSet<>();
+		char[] text = fullString.toCharArray();
+		tokenize(text, (chars, from, to) -> words.add(new String(chars, from, to - from)));
 		return words;
+	}
 
+	/**
+	 * The same as wordsIn(fullString).size(), but without creating a string per word.
+	 */
+	public static int uniqueWordsQty(String fullString) {
+		UniqueWords words = new UniqueWords();
+		char[] text = fullString.toCharArray();
+		tokenize(text, words);
+		return words.size();
 	}
 
-	private static Collection<? extends String> breakString(String string) {
+	// a single pass over the characters: tokens are runs of characters between delimiters, and
+	// only tokens made of word characters, that are not numbers and not keywords, are broken into words
+	private static void tokenize(char[] text, WordSink sink) {
+		int tokenStart = -1;
+		boolean onlyWordChars = true;
+		boolean onlyDigits = true;
 
-		if(string.length() == 1)
-			return Arrays.asList(string);
+		for (int i = 0; i < text.length; i++) {
+			char c = text[i];
+			if (isDelimiter(c)) {
+				if (tokenStart >= 0)
+					word(text, tokenStart, i, onlyWordChars, onlyDigits, sink);
+				tokenStart = -1;
+				continue;
+			}
 
-		int current = 0;
-		List<String> words = new ArrayList<>();
+			if (tokenStart < 0) {
+				tokenStart = i;
+				onlyWordChars = true;
+				onlyDigits = true;
+			}
+			onlyWordChars &= isWordChar(c);
+			onlyDigits &= c >= '0' && c <= '9';
+		}
+
+		if (tokenStart >= 0)
+			word(text, tokenStart, text.length, onlyWordChars, onlyDigits, sink);
+	}
+
+	private static void word(char[] text, int from, int to, boolean onlyWordChars, boolean onlyDigits, WordSink sink) {
+		if (!onlyWordChars || onlyDigits || isKeyword(text, from, to))
+			return;
 
-		for(int i = 1; i < string.length(); i++) {
-			if(string.charAt(i) == '_' || Character.isUpperCase(string.charAt(i))) {
-				String wordToAdd = string.substring(current, i);
-				words.add(wordToAdd);
-				current = i + (string.charAt(i) == '_' ? 1 : 0);
+		if (to - from == 1) {
+			sink.add(text, from, to);
+			return;
+		}
+
+		// breaks camel case and snake case; note that two separators in a row produce an empty word
+		int current = from;
+		for (int i = from + 1; i < to; i++) {
+			char c = text[i];
+			if (c == '_' || (c >= 'A' && c <= 'Z')) {
+				sink.add(text, current, i);
+				current = i + (c == '_' ? 1 : 0);
 			}
 		}
-		String remainingWord = string.substring(current);
-		words.add(remainingWord);
-		return words;
+		sink.add(text, current, to);
+	}
+
+	private static boolean isDelimiter(char c) {
+		switch (c) {
+			case ' ': case '\t': case '\n': case '\r':
+			case '(': case ')': case '{': case '}':
+			case '=': case '>': case '&': case '|': case '!':
+			case '+': case '*': case '/': case '-': case ';':
+				return true;
+			default:
+				return false;
+		}
 	}
 
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	private static boolean isKeyword(char[] text, int from, int to) {
+		int length = to - from;
+		if (length >= KEYWORDS_BY_LENGTH.length)
+			return false;
+
+		for (char[] keyword : KEYWORDS_BY_LENGTH[length]) {
+			if (Arrays.equals(keyword, 0, length, text, from, to))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Open addressing set of words, kept as offsets in the text.
+	 */
+	private static class UniqueWords implements WordSink {
+		private char[] text;
+		private int[] starts = new int[64];
+		private int[] lengths = new int[64];
+		private int size;
+
+		@Override
+		public void add(char[] text, int from, int to) {
+			this.text = text;
+			if ((size + 1) * 2 > starts.length)
+				grow();
+
+			int length = to - from;
+			int mask = starts.length - 1;
+			for (int slot = hash(text, from, length) & mask; ; slot = (slot + 1) & mask) {
+				if (starts[slot] == 0) {
+					starts[slot] = from + 1; // 0 marks an empty slot
+					lengths[slot] = length;
+					size++;
+					return;
+				}
+				if (lengths[slot] == length && Arrays.equals(text, starts[slot] - 1, starts[slot] - 1 + length, text, from, to))
+					return;
+			}
+		}
+
+		private void grow() {
+			int[] oldStarts = starts;
+			int[] oldLengths = lengths;
+			starts = new int[oldStarts.length * 2];
+			lengths = new int[oldLengths.length * 2];
+
+			int mask = starts.length - 1;
+			for (int i = 0; i < oldStarts.length; i++) {
+				if (oldStarts[i] == 0)
+					continue;
+
+				int slot = hash(text, oldStarts[i] - 1, oldLengths[i]) & mask;
+				while (starts[slot] != 0)
+					slot = (slot + 1) & mask;
+				starts[slot] = oldStarts[i];
+				lengths[slot] = oldLengths[i];
+			}
+		}
+
+		private static int hash(char[] text, int from, int length) {
+			int hash = 0;
+			for (int i = from; i < from + length; i++)
+				hash = 31 * hash + text[i];
+			return hash ^ (hash >>> 16);
+		}
+
+		int size() {
+			return size;
+		}
+	}
 
 	public static String removeSpacesAndIdentation(String toString) {
-		return toString
-				.trim()
-				.replace("\r", " ")
-				.replace("\t", " ")
-				.replace("\n", " ")
-				.replaceAll(" +", " ");
+		String trimmed = toString.trim();
+		char[] normalized = new char[trimmed.length()];
+		int length = 0;
+
+		// line breaks and tabs become spaces, and consecutive spaces become a single one
+		for (int i = 0; i < trimmed.length(); i++) {
+			char c = trimmed.charAt(i);
+			if (c == '\r' || c == '\t' || c == '\n')
+				c = ' ';
+			if (c == ' ' && length > 0 && normalized[length - 1] == ' ')
+				continue;
+			normalized[length++] = c;
+		}
+
+		return new String(normalized, 0, length);
 	}
 
 }
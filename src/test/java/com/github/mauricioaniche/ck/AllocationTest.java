@@ -0,0 +1,104 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
+import com.github.mauricioaniche.ck.metric.MethodLevelMetric;
+import com.github.mauricioaniche.ck.metric.NumberOfLogStatements;
+import com.github.mauricioaniche.ck.metric.NumberOfMaxNestedBlock;
+import com.github.mauricioaniche.ck.metric.WMC;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures how many bytes the metrics allocate per AST node they visit: the bytes allocated by the
+ * visitor with the metrics, minus the bytes it allocates with no metrics at all, over the number of nodes.
+ * Metrics are warmed up first, so that the pool (see {@link MetricPool}) and the JIT are done.
+ * (Before metrics were made allocation-free, WMC allocated about 10 bytes per node, and log statements 66.)
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class AllocationTest extends BaseTest {
+
+	private static final int WARM_UP = 200;
+	private static final int BATCHES = 5;
+	private static final int RUNS = 10;
+
+	private CompilationUnit cu;
+	private int nodes;
+
+	@BeforeAll
+	public void setUp() throws IOException {
+		String source = FileUtils.readFileToString(new File(fixturesDir() + "/real-world/NettyAsyncHttpProvider.java"), StandardCharsets.UTF_8);
+		ASTParser parser = ASTParser.newParser(AST.JLS11);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(source.toCharArray());
+		cu = (CompilationUnit) parser.createAST(null);
+
+		cu.accept(new ASTVisitor() {
+			@Override
+			public void preVisit(ASTNode node) {
+				nodes++;
+			}
+		});
+	}
+
+	@Test
+	public void wmc() {
+		assertNearZeroPerNode(() -> Arrays.asList(new WMC()), () -> Arrays.asList(new WMC()));
+	}
+
+	@Test
+	public void maxNestedBlocks() {
+		assertNearZeroPerNode(() -> Arrays.asList(new NumberOfMaxNestedBlock()), () -> Arrays.asList(new NumberOfMaxNestedBlock()));
+	}
+
+	@Test
+	public void logStatements() {
+		assertNearZeroPerNode(() -> Arrays.asList(new NumberOfLogStatements()), () -> Arrays.asList(new NumberOfLogStatements()));
+	}
+
+	private void assertNearZeroPerNode(Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics) {
+		long withoutMetrics = allocatedBytes(Collections::emptyList, Collections::emptyList);
+		long withMetrics = allocatedBytes(classLevelMetrics, methodLevelMetrics);
+
+		double perNode = (double) (withMetrics - withoutMetrics) / nodes;
+		Assertions.assertTrue(perNode < 2, "metrics allocated " + perNode + " bytes per node");
+	}
+
+	private long allocatedBytes(Callable<List<ClassLevelMetric>> classLevelMetrics, Callable<List<MethodLevelMetric>> methodLevelMetrics) {
+		MetricPool pool = new MetricPool(classLevelMetrics, methodLevelMetrics);
+		for (int i = 0; i < WARM_UP; i++)
+			visit(pool);
+
+		// the batch that allocated the least, as others might have included one-off allocations
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long least = Long.MAX_VALUE;
+		for (int batch = 0; batch < BATCHES; batch++) {
+			long before = threads.getCurrentThreadAllocatedBytes();
+			for (int i = 0; i < RUNS; i++)
+				visit(pool);
+			least = Math.min(least, (threads.getCurrentThreadAllocatedBytes() - before) / RUNS);
+		}
+		return least;
+	}
+
+	private void visit(MetricPool pool) {
+		CKVisitor visitor = new CKVisitor("NettyAsyncHttpProvider.java", cu, null, new CKContext(), pool);
+		cu.accept(visitor);
+	}
+}
@@ -0,0 +1,198 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.CKASTVisitor;
+import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
+import com.github.mauricioaniche.ck.metric.NOC;
+import com.github.mauricioaniche.ck.util.SourceRoots;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class CacheTest extends BaseTest {
+
+	// counts how many classes were really visited, i.e., did not come from the cache
+	private final AtomicInteger visitedClasses = new AtomicInteger();
+
+	private class VisitCounter implements CKASTVisitor, ClassLevelMetric {
+		@Override
+		public void visit(TypeDeclaration node) {
+			visitedClasses.incrementAndGet();
+		}
+
+		@Override
+		public void setResult(CKClassResult result) {
+		}
+	}
+
+	@Test
+	public void unchangedFilesAreNotParsedAgain(@TempDir Path tmp) throws Exception {
+		File src = tmp.resolve("src").toFile();
+		FileUtils.copyDirectory(new File(fixturesDir() + "/dit"), src);
+		CKCache cache = new CKCache(tmp.resolve("cache"));
+
+		Map<String, CKClassResult> firstRun = runCached(src, cache);
+		Assertions.assertEquals(6, visitedClasses.getAndSet(0));
+		Assertions.assertEquals(2, firstRun.get("dit.B").getNoc());
+
+		Map<String, CKClassResult> secondRun = runCached(src, cache);
+		Assertions.assertEquals(0, visitedClasses.getAndSet(0));
+		Assertions.assertEquals(6, secondRun.size());
+		Assertions.assertEquals(1, secondRun.get("dit.A").getNoc());
+		Assertions.assertEquals(2, secondRun.get("dit.B").getNoc());
+		Assertions.assertEquals(1, secondRun.get("dit.C").getNoc());
+
+		// X now extends A; A's children come from both the cache (B) and the parsed file (X)
+		FileUtils.writeStringToFile(new File(src, "X.java"), "package dit;\n\npublic class X extends A {\n\n}", StandardCharsets.UTF_8);
+		Map<String, CKClassResult> thirdRun = runCached(src, cache);
+		Assertions.assertEquals(1, visitedClasses.getAndSet(0));
+		Assertions.assertEquals(2, thirdRun.get("dit.A").getNoc());
+		Assertions.assertEquals(2, thirdRun.get("dit.B").getNoc());
+	}
+
+	@Test
+	public void aNewSourceRootKeepsTheOtherEntries(@TempDir Path tmp) throws Exception {
+		File src = tmp.resolve("src").toFile();
+		FileUtils.copyDirectory(new File(fixturesDir() + "/dit"), src);
+		CKCache cache = new CKCache(tmp.resolve("cache"));
+
+		runCached(src, cache);
+		Assertions.assertEquals(6, visitedClasses.getAndSet(0));
+
+		// src/gen is a new source root, but the files that were already there did not change
+		FileUtils.writeStringToFile(new File(src, "gen/other/Y.java"), "package other;\n\npublic class Y {\n\n}", StandardCharsets.UTF_8);
+		runCached(src, cache);
+		Assertions.assertEquals(1, visitedClasses.getAndSet(0));
+	}
+
+	@Test
+	public void staleEntriesAreReplaced(@TempDir Path tmp) throws Exception {
+		File src = tmp.resolve("src").toFile();
+		FileUtils.copyDirectory(new File(fixturesDir() + "/dit"), src);
+		Path cacheDir = tmp.resolve("cache");
+		CKCache cache = new CKCache(cacheDir);
+
+		runCached(src, cache);
+		// other metrics, and so another fingerprint: all files are parsed again
+		CK ck = new CK(false, 0, false, 1, Collections.singletonList("wmc"));
+		ck.setCache(cache);
+		ck.calculate(src.getAbsolutePath(), new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+
+		// one entry per file (and the source roots), not one per file and fingerprint
+		Assertions.assertEquals(FileUtils.listFiles(src, new String[] { "java" }, true).size() + 1,
+				cacheDir.toFile().list((dir, name) -> name.endsWith(".ser")).length);
+	}
+
+	@Test
+	public void cachedResultsAreTheSameAsParsedOnes(@TempDir Path tmp) throws Exception {
+		CKCache cache = new CKCache(tmp);
+		String dir = fixturesDir() + "/real-world";
+
+		Map<String, CKClassResult> parsed = byFileAndName(runWith(dir, null));
+		runWith(dir, cache);
+		Map<String, CKClassResult> cached = byFileAndName(runWith(dir, cache));
+
+		Assertions.assertEquals(parsed.keySet(), cached.keySet());
+		for (String key : parsed.keySet()) {
+			assertSameValues(CKClassResult.class, parsed.get(key), cached.get(key));
+
+			Map<String, CKMethodResult> cachedMethods = cached.get(key).getMethods().stream()
+					.collect(Collectors.toMap(CKMethodResult::getQualifiedMethodName, m -> m, (a, b) -> a));
+			for (CKMethodResult method : parsed.get(key).getMethods()) {
+				assertSameValues(CKMethodResult.class, method, cachedMethods.get(method.getQualifiedMethodName()));
+			}
+		}
+	}
+
+	@Test
+	public void sourceRootsAreKeptForTheNextRun(@TempDir Path tmp) throws Exception {
+		File file = tmp.resolve("src/a/A.java").toFile();
+		FileUtils.writeStringToFile(file, "package a;\nclass A {}", StandardCharsets.UTF_8);
+		String[] javaFiles = { file.getPath() };
+
+		CKCache cache = new CKCache(tmp.resolve("cache"));
+		SourceRoots roots = cache.loadSourceRoots();
+		Assertions.assertArrayEquals(new String[] { tmp.resolve("src").toString() }, roots.infer(tmp.toString(), javaFiles));
+		cache.storeSourceRoots(roots);
+
+		// the file did not change (as far as its modification time goes), so it is not read again
+		long lastModified = file.lastModified();
+		FileUtils.writeStringToFile(file, "class A {}", StandardCharsets.UTF_8);
+		file.setLastModified(lastModified);
+		Assertions.assertArrayEquals(new String[] { tmp.resolve("src").toString() },
+				new CKCache(tmp.resolve("cache")).loadSourceRoots().infer(tmp.toString(), javaFiles));
+	}
+
+	private Map<String, CKClassResult> runCached(File src, CKCache cache) {
+		CK ck = new CK(() -> Arrays.asList(new NOC(), new VisitCounter()), () -> Collections.emptyList());
+		ck.setCache(cache);
+
+		Map<String, CKClassResult> results = new HashMap<>();
+		ck.calculate(src.getAbsolutePath(), new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				results.put(result.getClassName(), result);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		return results;
+	}
+
+	private List<CKClassResult> runWith(String dir, CKCache cache) {
+		CK ck = new CK();
+		ck.setCache(cache);
+
+		List<CKClassResult> results = new ArrayList<>();
+		ck.calculate(dir, new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				results.add(result);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		return results;
+	}
+
+	private Map<String, CKClassResult> byFileAndName(List<CKClassResult> results) {
+		return results.stream().collect(Collectors.toMap(r -> r.getFile() + "#" + r.getClassName(), Function.identity(), (a, b) -> a));
+	}
+
+	private <T> void assertSameValues(Class<T> clazz, T expected, T actual) throws Exception {
+		Assertions.assertNotNull(actual);
+		for (Method method : clazz.getMethods()) {
+			if (!method.getName().startsWith("get") || method.getParameterCount() != 0)
+				continue;
+			if (method.getName().equals("getMethods") || method.getName().equals("getVisibleMethods"))
+				continue;
+
+			Assertions.assertEquals(method.invoke(expected), method.invoke(actual), clazz.getSimpleName() + "." + method.getName());
+		}
+	}
+}
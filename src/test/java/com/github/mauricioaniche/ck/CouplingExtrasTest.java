@@ -0,0 +1,81 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.CouplingExtras;
+import com.github.mauricioaniche.ck.metric.CouplingExtras.CouplingClassification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+public class CouplingExtrasTest {
+
+	@Test
+	public void simpleNamesCountOnlyIfTheirFullyQualifiedNameIsNotThere() {
+		CouplingExtras coupling = new CouplingExtras();
+		coupling.addToSetClassOut("a.A", "B");
+		coupling.addToSetClassOut("a.A", "C");
+		coupling.addToSetClassOut("a.A", "b.B");
+		Assertions.assertEquals(2, coupling.getValueFanOutClass("a.A"));
+
+		// reconciled again, as the coupling changed after it was read
+		coupling.addToSetClassOut("a.A", "c.C");
+		Assertions.assertEquals(2, coupling.getValueFanOutClass("a.A"));
+		coupling.addToSetClassOut("a.A", "D");
+		Assertions.assertEquals(3, coupling.getValueFanOutClass("a.A"));
+	}
+
+	@Test
+	public void addAll() {
+		CouplingExtras file1 = new CouplingExtras();
+		file1.addToSetClassIn("b.B", "a.A");
+		file1.addToSetClassOut("a.A", "b.B");
+		file1.addCouplingCategoryBetweenClasses("a.A", "b.B", CouplingClassification.INHERITANCE_COUPLING);
+		file1.addToSetMethodOut("a.A.m1/0", "b.B.m2/0");
+
+		CouplingExtras file2 = new CouplingExtras();
+		file2.addToSetClassIn("b.B", "c.C");
+		file2.addCouplingCategoryBetweenClasses("a.A", "b.B", CouplingClassification.DATA_ABSTRACTION_COUPLING);
+
+		CouplingExtras all = new CouplingExtras();
+		all.addAll(file1);
+		all.addAll(file2);
+
+		Assertions.assertEquals(2, all.getValueFanInClass("b.B"));
+		Assertions.assertEquals(1, all.getValueFanOutClass("a.A"));
+		Assertions.assertEquals(1, all.getValueFanOutMethod("a.A.m1/0"));
+		Assertions.assertEquals(0, all.getValueFanInMethod("a.A.m1/0"));
+		Assertions.assertEquals(
+				EnumSet.of(CouplingClassification.INHERITANCE_COUPLING, CouplingClassification.DATA_ABSTRACTION_COUPLING),
+				all.getClassCouplingCategories().get("a.A").get("b.B"));
+	}
+
+	@Test
+	public void partitionsAddUpToTheSameAsASingleContext() {
+		CouplingExtras single = new CouplingExtras();
+		CouplingExtras partition1 = new CouplingExtras();
+		CouplingExtras partition2 = new CouplingExtras();
+		for (CouplingExtras coupling : new CouplingExtras[] { single, partition1 }) {
+			coupling.addCouplingCategoryBetweenClasses("z.Z", "a.A", CouplingClassification.INTERFACE_COUPLING);
+			coupling.addToSetClassIn("a.A", "z.Z");
+		}
+		for (CouplingExtras coupling : new CouplingExtras[] { single, partition2 }) {
+			coupling.addCouplingCategoryBetweenClasses("m.M", "a.A", CouplingClassification.INHERITANCE_COUPLING);
+			coupling.addToSetClassIn("a.A", "m.M");
+			coupling.addToSetClassOut("m.M", "A");
+		}
+
+		CouplingExtras all = new CouplingExtras();
+		all.addAll(partition1);
+		Assertions.assertEquals(1, all.getValueFanInClass("a.A"));
+		all.addAll(partition2);
+
+		// counted again after the second partition came in
+		Assertions.assertEquals(single.getValueFanInClass("a.A"), all.getValueFanInClass("a.A"));
+		Assertions.assertEquals(single.getValueFanOutClass("m.M"), all.getValueFanOutClass("m.M"));
+		// in the order classes were first seen
+		Assertions.assertEquals(new ArrayList<>(single.getClassCouplingCategories().keySet()),
+				new ArrayList<>(all.getClassCouplingCategories().keySet()));
+		Assertions.assertEquals(single.getClassCouplingCategories(), all.getClassCouplingCategories());
+	}
+}
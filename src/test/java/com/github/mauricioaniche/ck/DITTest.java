@@ -1,6 +1,5 @@
 package com.github.mauricioaniche.ck;
 
-import com.github.mauricioaniche.ck.metric.NOCExtras;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -15,7 +14,6 @@ public class DITTest extends BaseTest {
 
 	@BeforeAll
 	public void setUp() {
-		NOCExtras.resetInstance();
 		report = run(fixturesDir() + "/dit");
 	}
 	
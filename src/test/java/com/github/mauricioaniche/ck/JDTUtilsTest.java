@@ -1,10 +1,18 @@
 package com.github.mauricioaniche.ck;
 
+import com.github.mauricioaniche.ck.util.JDTUtils;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -24,4 +32,34 @@ public class JDTUtilsTest extends BaseTest {
 		Assertions.assertTrue(a.getMethod("m3/3[int,jdt.A,double]").isPresent());
 		Assertions.assertTrue(a.getMethod("m4/4[int,int[],java.lang.String[],jdt.A[]]").isPresent());
 	}
+
+	@Test
+	public void namesOfBindingsAreBuiltOncePerPartition() {
+		String source = "class A { void m1(int a) { m1(1); m1(2); } }";
+		ASTParser parser = ASTParser.newParser(AST.JLS11);
+		parser.setResolveBindings(true);
+		parser.setEnvironment(null, null, null, true);
+		parser.setUnitName("A.java");
+		parser.setSource(source.toCharArray());
+		CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+
+		List<String> names = new ArrayList<>();
+		ASTVisitor invocations = new ASTVisitor() {
+			@Override
+			public boolean visit(MethodInvocation node) {
+				names.add(JDTUtils.getQualifiedMethodFullName(node));
+				return true;
+			}
+		};
+
+		JDTUtils.cachingBindingNames(() -> cu.accept(invocations));
+		Assertions.assertEquals("A.m1/1[int]", names.get(0));
+		Assertions.assertSame(names.get(0), names.get(1));
+
+		// without a partition, names are built on every call
+		names.clear();
+		cu.accept(invocations);
+		Assertions.assertEquals(names.get(0), names.get(1));
+		Assertions.assertNotSame(names.get(0), names.get(1));
+	}
 }
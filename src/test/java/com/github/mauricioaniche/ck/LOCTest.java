@@ -23,17 +23,19 @@ public class LOCTest extends BaseTest {
 	public void countLinesForInnerClasses() {
 		Map<String, CKClassResult> report = run(fixturesDir() + "/innerclasses");
 
+		// lines as they are in the file, without blank and comment-only lines
 		CKClassResult a = report.get("innerclasses.MessyClass");
-		Assertions.assertEquals(65, a.getLoc());
+		Assertions.assertEquals(64, a.getLoc());
 
 		CKClassResult sc1 = report.get("innerclasses.MessyClass$InnerClass1");
-		Assertions.assertEquals(14, sc1.getLoc());
+		Assertions.assertEquals(12, sc1.getLoc());
 
 		CKClassResult sc2 = report.get("innerclasses.MessyClass$InnerClass2");
-		Assertions.assertEquals(9, sc2.getLoc());
+		Assertions.assertEquals(7, sc2.getLoc());
 
+		// from the opening to the closing brace of its body
 		CKClassResult an1 = report.get("innerclasses.MessyClass$Anonymous1");
-		Assertions.assertEquals(5, an1.getLoc());
+		Assertions.assertEquals(6, an1.getLoc());
 	}
 	
 }
@@ -0,0 +1,56 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.CKASTVisitor;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class MetricDispatchTest {
+
+	private final AST ast = AST.newAST(AST.JLS11, false);
+
+	static class InvocationsOnly implements CKASTVisitor {
+		@Override
+		public void visit(MethodInvocation node) {
+		}
+	}
+
+	static class BlocksAndInvocations extends InvocationsOnly {
+		@Override
+		public void endVisit(Block node) {
+		}
+	}
+
+	static class Nothing implements CKASTVisitor {
+	}
+
+	@Test
+	public void onlyMetricsThatOverrideTheNodeTypeAreCalled() {
+		InvocationsOnly invocations = new InvocationsOnly();
+		BlocksAndInvocations blocks = new BlocksAndInvocations();
+		MetricDispatch dispatch = new MetricDispatch(Arrays.asList(invocations, new Nothing(), blocks));
+
+		// inherited overrides count, and metrics keep their order
+		Assertions.assertArrayEquals(new CKASTVisitor[] { invocations, blocks }, dispatch.visitorsOf(ast.newMethodInvocation()));
+		Assertions.assertArrayEquals(new CKASTVisitor[0], dispatch.endVisitorsOf(ast.newMethodInvocation()));
+
+		Assertions.assertArrayEquals(new CKASTVisitor[0], dispatch.visitorsOf(ast.newBlock()));
+		Assertions.assertArrayEquals(new CKASTVisitor[] { blocks }, dispatch.endVisitorsOf(ast.newBlock()));
+
+		Assertions.assertArrayEquals(new CKASTVisitor[0], dispatch.visitorsOf(ast.newReturnStatement()));
+	}
+
+	@Test
+	public void sameMetricClassesShareTheLayoutButNotTheInstances() {
+		InvocationsOnly first = new InvocationsOnly();
+		InvocationsOnly second = new InvocationsOnly();
+
+		MethodInvocation node = ast.newMethodInvocation();
+		Assertions.assertSame(first, new MetricDispatch(Arrays.asList(first)).visitorsOf(node)[0]);
+		Assertions.assertSame(second, new MetricDispatch(Arrays.asList(second)).visitorsOf(node)[0]);
+	}
+}
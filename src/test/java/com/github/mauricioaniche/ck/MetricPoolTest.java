@@ -0,0 +1,52 @@
+package com.github.mauricioaniche.ck;
+
+import com.github.mauricioaniche.ck.metric.ClassLevelMetric;
+import com.github.mauricioaniche.ck.metric.DIT;
+import com.github.mauricioaniche.ck.metric.MethodLevelMetric;
+import com.github.mauricioaniche.ck.metric.NumberOfLoops;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MetricPoolTest {
+
+	@Test
+	public void reusesMetricsThatCanBeReset() {
+		MetricPool pool = new MetricPool(() -> Arrays.asList(new DIT()), () -> Arrays.asList(new NumberOfLoops()));
+
+		CKVisitor.ClassInTheStack first = pool.classInTheStack();
+		pool.release(first);
+		Assertions.assertSame(first.classLevelMetrics.get(0), pool.classInTheStack().classLevelMetrics.get(0));
+
+		CKVisitor.MethodInTheStack method = pool.methodInTheStack();
+		pool.release(method);
+		Assertions.assertSame(method.methodLevelMetrics.get(0), pool.methodInTheStack().methodLevelMetrics.get(0));
+	}
+
+	@Test
+	public void nestedClassesGetTheirOwnMetrics() {
+		MetricPool pool = new MetricPool(() -> Arrays.asList(new DIT()), Collections::emptyList);
+
+		CKVisitor.ClassInTheStack outer = pool.classInTheStack();
+		CKVisitor.ClassInTheStack inner = pool.classInTheStack();
+		Assertions.assertNotSame(outer.classLevelMetrics.get(0), inner.classLevelMetrics.get(0));
+	}
+
+	@Test
+	public void instantiatesAgainMetricsThatCannotBeReset() {
+		List<ClassLevelMetric> instantiated = new ArrayList<>();
+		MetricPool pool = new MetricPool(() -> {
+			ClassLevelMetric metric = result -> { };
+			instantiated.add(metric);
+			return Arrays.asList(metric, new DIT());
+		}, () -> Collections.<MethodLevelMetric>emptyList());
+
+		pool.release(pool.classInTheStack());
+		pool.classInTheStack();
+		Assertions.assertEquals(2, instantiated.size());
+	}
+}
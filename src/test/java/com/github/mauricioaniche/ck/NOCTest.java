@@ -1,17 +1,17 @@
 package com.github.mauricioaniche.ck;
 
-import com.github.mauricioaniche.ck.metric.NOCExtras;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.Map;
+
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class NOCTest extends BaseTest{
 
 	@BeforeAll
 	public void setUp() {
-		NOCExtras.resetInstance();
 		report = run(fixturesDir() + "/dit");
 	}
 	
@@ -35,5 +35,13 @@ public class NOCTest extends BaseTest{
 		CKClassResult f = report.get("dit.X");
 		Assertions.assertEquals(0, f.getNoc());
 	}
+
+	@Test
+	public void childrenAreNotCarriedOverToTheNextRun() {
+		Map<String, CKClassResult> secondRun = run(fixturesDir() + "/dit");
+
+		Assertions.assertEquals(1, secondRun.get("dit.A").getNoc());
+		Assertions.assertEquals(2, secondRun.get("dit.B").getNoc());
+	}
 	
 }
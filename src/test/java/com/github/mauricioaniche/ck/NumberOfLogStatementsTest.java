@@ -36,4 +36,14 @@ public class NumberOfLogStatementsTest extends BaseTest {
         CKClassResult a = report.get("logs.SLF4JExample");
         assertEquals(5, a.getNumberOfLogStatements());
     }
+
+    @Test
+    public void testCountStatementsThatLookLikeLogStatements() {
+        CKClassResult a = report.get("logs.LogStatementsInDisguise");
+
+        assertEquals(1, a.getMethod("m1/0").get().getLogStatementsQty());
+        assertEquals(1, a.getMethod("m2/0").get().getLogStatementsQty());
+        assertEquals(1, a.getMethod("m3/0").get().getLogStatementsQty());
+        assertEquals(2, a.getMethod("m4/0").get().getLogStatementsQty());
+    }
 }
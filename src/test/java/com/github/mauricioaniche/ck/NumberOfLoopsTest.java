@@ -1,10 +1,13 @@
 package com.github.mauricioaniche.ck;
 
+import com.github.mauricioaniche.ck.metric.NumberOfLoops;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -41,4 +44,13 @@ public class NumberOfLoopsTest extends BaseTest {
 		Assertions.assertEquals(1, a.getMethod("m4/0").get().getLoopQty());
 
 	}
+
+	@Test
+	public void classLevelOnly() {
+		// without a method level instance to aggregate from, the class visits the methods itself
+		Map<String, CKClassResult> classLevelOnly = runDebug(fixturesDir() + "/loop", () -> Arrays.asList(new NumberOfLoops()), () -> Collections.emptyList());
+
+		Assertions.assertEquals(5, classLevelOnly.get("loop.Loop").getLoopQty());
+		Assertions.assertEquals(6, classLevelOnly.get("loop.Loop2").getLoopQty());
+	}
 }
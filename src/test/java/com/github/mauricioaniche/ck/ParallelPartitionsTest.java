@@ -0,0 +1,61 @@
+package com.github.mauricioaniche.ck;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ParallelPartitionsTest extends BaseTest {
+
+	@Test
+	public void sameResultsAsSequentialRun() throws Exception {
+		List<CKClassResult> sequential = runWith(1);
+		List<CKClassResult> parallel = runWith(4);
+
+		// same classes, notified in the same order
+		Assertions.assertEquals(
+				sequential.stream().map(CKClassResult::getClassName).collect(Collectors.toList()),
+				parallel.stream().map(CKClassResult::getClassName).collect(Collectors.toList()));
+
+		for (int i = 0; i < sequential.size(); i++) {
+			assertSameValues(CKClassResult.class, sequential.get(i), parallel.get(i));
+
+			Map<String, CKMethodResult> parallelMethods = parallel.get(i).getMethods().stream()
+					.collect(Collectors.toMap(CKMethodResult::getQualifiedMethodName, m -> m, (a, b) -> a));
+			for (CKMethodResult method : sequential.get(i).getMethods()) {
+				assertSameValues(CKMethodResult.class, method, parallelMethods.get(method.getQualifiedMethodName()));
+			}
+		}
+	}
+
+	private List<CKClassResult> runWith(int threads) {
+		List<CKClassResult> results = new ArrayList<>();
+		// small partitions, so that the real-world fixtures are spread among many workers
+		new CK(false, 5, true, threads).calculate(fixturesDir() + "/real-world", new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				results.add(result);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		return results;
+	}
+
+	private <T> void assertSameValues(Class<T> clazz, T expected, T actual) throws Exception {
+		Assertions.assertNotNull(actual);
+		for (Method method : clazz.getMethods()) {
+			if (!method.getName().startsWith("get") || method.getParameterCount() != 0)
+				continue;
+			if (method.getName().equals("getMethods") || method.getName().equals("getVisibleMethods"))
+				continue;
+
+			Assertions.assertEquals(method.invoke(expected), method.invoke(actual), clazz.getSimpleName() + "." + method.getName());
+		}
+	}
+}
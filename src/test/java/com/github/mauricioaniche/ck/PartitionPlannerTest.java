@@ -0,0 +1,85 @@
+package com.github.mauricioaniche.ck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PartitionPlannerTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	public void packsFilesBySize() throws IOException {
+		String a = file("p/A.java", 60);
+		String b = file("p/B.java", 60);
+		String c = file("p/C.java", 30);
+		String d = file("p/D.java", 10);
+
+		List<List<String>> partitions = new PartitionPlanner(100, Integer.MAX_VALUE).plan(Arrays.asList(a, b, c, d));
+
+		assertEquals(Arrays.asList(Arrays.asList(a), Arrays.asList(b, c, d)), partitions);
+	}
+
+	@Test
+	public void largeFileGetsItsOwnPartition() throws IOException {
+		String a = file("p/A.java", 10);
+		String big = file("p/Big.java", 500);
+		String b = file("p/B.java", 10);
+
+		List<List<String>> partitions = new PartitionPlanner(100, Integer.MAX_VALUE).plan(Arrays.asList(a, big, b));
+
+		assertEquals(Arrays.asList(Arrays.asList(a), Arrays.asList(big), Arrays.asList(b)), partitions);
+	}
+
+	@Test
+	public void filesOfTheSamePackageStayTogether() throws IOException {
+		String a1 = file("a/A1.java", 10);
+		String b1 = file("b/B1.java", 10);
+		String a2 = file("a/A2.java", 10);
+		String b2 = file("b/B2.java", 10);
+		String c1 = file("c/C1.java", 10);
+
+		// b does not fit next to a, so it starts a new partition rather than being split
+		List<List<String>> partitions = new PartitionPlanner(Long.MAX_VALUE, 3).plan(Arrays.asList(a1, b1, a2, b2, c1));
+
+		assertEquals(Arrays.asList(Arrays.asList(a1, a2), Arrays.asList(b1, b2, c1)), partitions);
+	}
+
+	@Test
+	public void packageLargerThanAPartitionIsSplit() throws IOException {
+		String a1 = file("a/A1.java", 10);
+		String a2 = file("a/A2.java", 10);
+		String a3 = file("a/A3.java", 10);
+
+		List<List<String>> partitions = PartitionPlanner.basedOnFiles(2).plan(Arrays.asList(a1, a2, a3));
+
+		assertEquals(Arrays.asList(Arrays.asList(a1, a2), Arrays.asList(a3)), partitions);
+	}
+
+	@Test
+	public void threadsShareTheHeap() throws IOException {
+		int size = 40 * 1024;
+		List<String> files = Arrays.asList(file("p/A.java", size), file("p/B.java", size), file("p/C.java", size), file("p/D.java", size));
+		long heap = 4L * size * PartitionPlanner.HEAP_PER_SOURCE_BYTE;
+
+		assertEquals(1, PartitionPlanner.basedOnMemory(heap, 1).plan(files).size());
+		assertEquals(2, PartitionPlanner.basedOnMemory(heap, 2).plan(files).size());
+		// partitions never get smaller than the minimum, however many threads there are
+		assertEquals(4, PartitionPlanner.basedOnMemory(heap, 100).plan(files).size());
+	}
+
+	private String file(String name, int size) throws IOException {
+		Path file = dir.resolve(name);
+		Files.createDirectories(file.getParent());
+		Files.write(file, new byte[size]);
+		return file.toString();
+	}
+}
@@ -0,0 +1,137 @@
+package com.github.mauricioaniche.ck;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ResultWriterTest {
+
+	@Test
+	public void projectWideMetricsAreFilledWhenClosing(@TempDir Path dir) throws IOException {
+		writeAndCheckProjectWideMetrics(dir, true);
+	}
+
+	@Test
+	public void closingWithoutAContextUsesTheOneOfThePrintedResults(@TempDir Path dir) throws IOException {
+		writeAndCheckProjectWideMetrics(dir, false);
+	}
+
+	private void writeAndCheckProjectWideMetrics(Path dir, boolean withContext) throws IOException {
+		String classFile = dir.resolve("class.csv").toString();
+		String methodFile = dir.resolve("method.csv").toString();
+		ResultWriter writer = new ResultWriter(classFile, methodFile,
+				dir.resolve("variable.csv").toString(), dir.resolve("field.csv").toString(), false);
+
+		List<CKClassResult> results = new ArrayList<>();
+		CKContext context = new CK().calculate(BaseTest.fixturesDir() + "/real-world", new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				// results are written while the analysis is still running
+				try {
+					writer.printResult(result);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				results.add(result);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		if (withContext)
+			writer.flushAndClose(context);
+		else
+			writer.flushAndClose();
+
+		assertFalse(dir.resolve("class.csv.pending").toFile().exists());
+		assertFalse(dir.resolve("method.csv.pending").toFile().exists());
+
+		List<CSVRecord> classes = read(classFile);
+		assertEquals(results.size(), classes.size());
+
+		Map<String, CKMethodResult> methods = new HashMap<>();
+		for (int i = 0; i < results.size(); i++) {
+			CKClassResult result = results.get(i);
+			CSVRecord row = classes.get(i);
+
+			assertEquals(result.getClassName(), row.get("class"));
+			assertEquals(result.getCbo(), Integer.parseInt(row.get("cbo")));
+			assertEquals(result.getCboModified(), Integer.parseInt(row.get("cboModified")));
+			assertEquals(result.getFanin(), Integer.parseInt(row.get("fanin")));
+			assertEquals(result.getFanout(), Integer.parseInt(row.get("fanout")));
+			assertEquals(result.getNoc(), Integer.parseInt(row.get("noc")));
+
+			result.getMethods().forEach(m -> methods.put(result.getClassName() + "#" + m.getMethodName(), m));
+		}
+
+		List<CSVRecord> methodRows = read(methodFile);
+		assertEquals(methods.size(), methodRows.size());
+		for (CSVRecord row : methodRows) {
+			CKMethodResult method = methods.get(row.get("class") + "#" + row.get("method"));
+
+			assertEquals(method.getCboModified(), Integer.parseInt(row.get("cboModified")));
+			assertEquals(method.getFanin(), Integer.parseInt(row.get("fanin")));
+			assertEquals(method.getFanout(), Integer.parseInt(row.get("fanout")));
+			assertEquals(method.getWmc(), Integer.parseInt(row.get("wmc")));
+		}
+	}
+
+	@Test
+	public void onlySelectedColumnsAreWritten(@TempDir Path dir) throws IOException {
+		List<String> metrics = Arrays.asList("wmc", "fanin", "returnQty");
+		String classFile = dir.resolve("class.csv").toString();
+		String methodFile = dir.resolve("method.csv").toString();
+		ResultWriter writer = new ResultWriter(classFile, methodFile,
+				dir.resolve("variable.csv").toString(), dir.resolve("field.csv").toString(), false, metrics);
+
+		CKContext context = new CK(false, 0, false, 1, metrics).calculate(BaseTest.fixturesDir() + "/real-world", new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				try {
+					writer.printResult(result);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		writer.flushAndClose(context);
+
+		try (CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(new FileReader(classFile))) {
+			assertEquals(Arrays.asList("file", "class", "type", "fanin", "wmc", "returnQty"), parser.getHeaderNames());
+			assertFalse(parser.getRecords().isEmpty());
+		}
+		try (CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(new FileReader(methodFile))) {
+			assertEquals(Arrays.asList("file", "class", "method", "constructor", "line", "fanin", "wmc", "returnsQty"), parser.getHeaderNames());
+			assertFalse(parser.getRecords().isEmpty());
+		}
+	}
+
+	private List<CSVRecord> read(String file) throws IOException {
+		try (CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(new FileReader(file))) {
+			return parser.getRecords();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.github.mauricioaniche.ck;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ProxyInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+public class SharedClasspathTest {
+
+	private static final int FILES = 4;
+
+	@Test
+	public void jarsAreStillThereForLaterPartitions(@TempDir Path project) throws IOException {
+		createProject(project);
+
+		// one file per partition, so that all but the first one reuse the classpath
+		for (int threads : new int[] { 1, 2 }) {
+			Map<String, CKClassResult> results = new HashMap<>();
+			new CK(true, 1, false, threads).calculate(project.toString(), new CKNotifier() {
+				@Override
+				public void notify(CKClassResult result) {
+					results.put(result.getClassName(), result);
+				}
+
+				@Override
+				public void notifyError(String sourceFilePath, Exception e) {
+					Assertions.fail(sourceFilePath, e);
+				}
+			});
+
+			Assertions.assertEquals(FILES, results.size());
+			// ProxyInputStream (only in the jar), FilterInputStream, InputStream, Object
+			for (CKClassResult result : results.values())
+				Assertions.assertEquals(4, result.getDit(), result.getClassName() + " with " + threads + " threads");
+		}
+	}
+
+	private static void createProject(Path project) throws IOException {
+		Path sources = Files.createDirectories(project.resolve("src/p"));
+		for (int i = 0; i < FILES; i++) {
+			Files.write(sources.resolve("A" + i + ".java"), ("package p;\n" +
+					"import org.apache.commons.io.input.ProxyInputStream;\n" +
+					"public class A" + i + " extends ProxyInputStream {\n" +
+					"  public A" + i + "() { super(null); }\n" +
+					"}\n").getBytes(StandardCharsets.UTF_8));
+		}
+
+		String classFile = ProxyInputStream.class.getName().replace('.', '/') + ".class";
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(project.resolve("lib.jar").toFile()));
+			 InputStream in = ProxyInputStream.class.getClassLoader().getResourceAsStream(classFile)) {
+			jar.putNextEntry(new JarEntry(classFile));
+			IOUtils.copy(in, jar);
+			jar.closeEntry();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.github.mauricioaniche.ck;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StructureOnlyTest {
+
+	private static final List<String> STRUCTURAL = Arrays.asList("totalMethodsQty", "publicMethodsQty", "totalFieldsQty",
+			"privateFieldsQty", "dit", "noc", "parametersQty", "hasJavaDoc", "modifiers");
+
+	@Test
+	public void onlyWhenNoMetricLooksInsideMethodBodies() {
+		Assertions.assertTrue(new CK(false, 0, false, 1, STRUCTURAL).isStructureOnly());
+		Assertions.assertTrue(new CK(false, 0, false, 1, Arrays.asList("dit", "modifiers")).isStructureOnly());
+
+		Assertions.assertFalse(new CK(false, 0, false, 1, Arrays.asList("totalMethodsQty", "wmc")).isStructureOnly());
+		Assertions.assertFalse(new CK(false, 0, false, 1, Arrays.asList("totalMethodsQty", "loc")).isStructureOnly());
+		// no metric at all: there is nothing to gain from leaving method bodies out
+		Assertions.assertFalse(new CK(false, 0, false, 1, Arrays.asList("loc")).isStructureOnly());
+		Assertions.assertFalse(new CK(false, 0, false, 1, Arrays.asList("file", "class", "method")).isStructureOnly());
+		Assertions.assertFalse(new CK(false, 0, false, 1, Arrays.asList("modifiers")).isStructureOnly());
+		Assertions.assertFalse(new CK(false, 0, false, 1, Arrays.asList("nosi")).isStructureOnly());
+		Assertions.assertFalse(new CK().isStructureOnly());
+	}
+
+	@Test
+	public void structuralMetricsAreTheSameWithoutBodies() {
+		Map<String, CKClassResult> withBodies = run(new CK());
+		Map<String, CKClassResult> structureOnly = run(new CK(false, 0, false, 1, STRUCTURAL));
+
+		for (String className : structureOnly.keySet()) {
+			CKClassResult expected = withBodies.get(className);
+			CKClassResult actual = structureOnly.get(className);
+			Assertions.assertNotNull(expected, className);
+
+			Assertions.assertEquals(expected.getModifiers(), actual.getModifiers(), className);
+			Assertions.assertEquals(expected.getNumberOfMethods(), actual.getNumberOfMethods(), className);
+			Assertions.assertEquals(expected.getNumberOfPublicMethods(), actual.getNumberOfPublicMethods(), className);
+			Assertions.assertEquals(expected.getNumberOfFields(), actual.getNumberOfFields(), className);
+			Assertions.assertEquals(expected.getNumberOfPrivateFields(), actual.getNumberOfPrivateFields(), className);
+			Assertions.assertEquals(expected.getNoc(), actual.getNoc(), className);
+			// (DIT is left out: with bodies, the classes declared in them overwrite the DIT of the class they are in)
+
+			for (CKMethodResult method : actual.getMethods()) {
+				CKMethodResult expectedMethod = expected.getMethod(method.getMethodName()).get();
+				Assertions.assertEquals(expectedMethod.getParametersQty(), method.getParametersQty(), method.getQualifiedMethodName());
+				Assertions.assertEquals(expectedMethod.getHasJavadoc(), method.getHasJavadoc(), method.getQualifiedMethodName());
+			}
+		}
+
+		// classes declared in method bodies are not found without them
+		String localClass = "org.apache.commons.beanutils2.BeanificationTestCase$1CCLLTesterThread";
+		Assertions.assertTrue(withBodies.containsKey(localClass));
+		Assertions.assertFalse(structureOnly.containsKey(localClass));
+	}
+
+	@Test
+	public void classesInMethodBodiesAreFoundWhenLinesOfCodeAreAskedFor() {
+		Map<String, CKClassResult> withBodies = run(new CK());
+		Map<String, CKClassResult> loc = run(new CK(false, 0, false, 1, Arrays.asList("loc")));
+
+		Assertions.assertEquals(withBodies.keySet(), loc.keySet());
+		Assertions.assertTrue(loc.containsKey("org.apache.commons.beanutils2.BeanificationTestCase$1CCLLTesterThread"));
+		Assertions.assertTrue(loc.keySet().stream().anyMatch(className -> className.contains("$Anonymous")));
+		for (String className : loc.keySet())
+			Assertions.assertEquals(withBodies.get(className).getLoc(), loc.get(className).getLoc(), className);
+	}
+
+	@Test
+	public void metricsThatNeedBodiesAreUnavailable(@TempDir Path dir) throws IOException {
+		CK ck = new CK(false, 0, false, 1, STRUCTURAL);
+		Assertions.assertTrue(ck.getUnavailableColumns().contains("wmc"));
+		Assertions.assertTrue(ck.getUnavailableColumns().contains("nosi"));
+		Assertions.assertFalse(ck.getUnavailableColumns().contains("totalmethodsqty"));
+		Assertions.assertTrue(ck.getUnavailableColumns().contains("loc"));
+
+		// writes all columns, even the ones that were not calculated
+		String classFile = dir.resolve("class.csv").toString();
+		ResultWriter writer = new ResultWriter(classFile, dir.resolve("method.csv").toString(),
+				dir.resolve("variable.csv").toString(), dir.resolve("field.csv").toString(), false);
+		writer.setUnavailableColumns(ck.getUnavailableColumns());
+
+		CKContext context = ck.calculate(BaseTest.fixturesDir() + "/real-world", new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				try {
+					writer.printResult(result);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		writer.flushAndClose(context);
+
+		// empty, rather than a misleading 0
+		try (Reader in = new FileReader(classFile);
+			 CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(in)) {
+			List<CSVRecord> rows = parser.getRecords();
+			Assertions.assertFalse(rows.isEmpty());
+			for (CSVRecord row : rows) {
+				Assertions.assertEquals("", row.get("wmc"));
+				Assertions.assertEquals("", row.get("cbo"));
+				Assertions.assertEquals("", row.get("uniqueWordsQty"));
+				Assertions.assertNotEquals("", row.get("totalMethodsQty"));
+				Assertions.assertEquals("", row.get("loc"));
+			}
+		}
+	}
+
+	private static Map<String, CKClassResult> run(CK ck) {
+		Map<String, CKClassResult> results = new HashMap<>();
+		ck.calculate(BaseTest.fixturesDir() + "/real-world", new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				results.put(result.getClassName(), result);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		return results;
+	}
+}
@@ -0,0 +1,119 @@
+package com.github.mauricioaniche.ck;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SyntaxOnlyTest {
+
+	@Test
+	public void syntaxMetricsAreTheSameWithoutBindings() {
+		for (String fixture : new String[] { "wmc", "loop", "nestedblocks", "returns", "logs" }) {
+			Map<String, CKClassResult> withBindings = run(fixture, false);
+			Map<String, CKClassResult> syntaxOnly = run(fixture, true);
+
+			// classes are named after their packages, as binary names are
+			Assertions.assertEquals(withBindings.keySet(), syntaxOnly.keySet());
+			for (String className : withBindings.keySet()) {
+				CKClassResult expected = withBindings.get(className);
+				CKClassResult actual = syntaxOnly.get(className);
+
+				Assertions.assertEquals(expected.getWmc(), actual.getWmc(), className);
+				Assertions.assertEquals(expected.getLoc(), actual.getLoc(), className);
+				Assertions.assertEquals(expected.getLoopQty(), actual.getLoopQty(), className);
+				Assertions.assertEquals(expected.getMaxNestedBlocks(), actual.getMaxNestedBlocks(), className);
+				Assertions.assertEquals(expected.getReturnQty(), actual.getReturnQty(), className);
+				Assertions.assertEquals(expected.getNumberOfLogStatements(), actual.getNumberOfLogStatements(), className);
+				Assertions.assertEquals(expected.getUniqueWordsQty(), actual.getUniqueWordsQty(), className);
+			}
+		}
+	}
+
+	@Test
+	public void fieldsAreFoundByTheirDeclarations() {
+		Map<String, CKClassResult> withBindings = run("fieldusage", false);
+		Map<String, CKClassResult> syntaxOnly = run("fieldusage", true);
+
+		for (String className : withBindings.keySet()) {
+			for (CKMethodResult method : withBindings.get(className).getMethods()) {
+				CKMethodResult actual = syntaxOnly.get(className).getMethod(method.getMethodName()).get();
+				Assertions.assertEquals(method.getFieldUsage(), actual.getFieldUsage(), method.getQualifiedMethodName());
+			}
+		}
+	}
+
+	@Test
+	public void metricsThatNeedBindingsAreUnavailable(@TempDir Path dir) throws IOException {
+		CK ck = new CK();
+		Assertions.assertTrue(ck.getUnavailableColumns().isEmpty());
+
+		ck.setSyntaxOnly(true);
+		Assertions.assertEquals(Set.of("dit", "nosi"), ck.getUnavailableColumns());
+
+		String classFile = dir.resolve("class.csv").toString();
+		ResultWriter writer = new ResultWriter(classFile, dir.resolve("method.csv").toString(),
+				dir.resolve("variable.csv").toString(), dir.resolve("field.csv").toString(), false);
+		writer.setUnavailableColumns(ck.getUnavailableColumns());
+
+		CKContext context = ck.calculate(BaseTest.fixturesDir() + "/dit", new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				try {
+					writer.printResult(result);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		writer.flushAndClose(context);
+
+		// empty, rather than a misleading 0
+		try (Reader in = new FileReader(classFile);
+			 CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(in)) {
+			List<CSVRecord> rows = parser.getRecords();
+			Assertions.assertFalse(rows.isEmpty());
+			for (CSVRecord row : rows) {
+				Assertions.assertEquals("", row.get("dit"));
+				Assertions.assertEquals("", row.get("nosi"));
+				Assertions.assertNotEquals("", row.get("wmc"));
+			}
+		}
+	}
+
+	private static Map<String, CKClassResult> run(String fixture, boolean syntaxOnly) {
+		CK ck = new CK();
+		ck.setSyntaxOnly(syntaxOnly);
+
+		Map<String, CKClassResult> results = new HashMap<>();
+		ck.calculate(BaseTest.fixturesDir() + "/" + fixture, new CKNotifier() {
+			@Override
+			public void notify(CKClassResult result) {
+				results.put(result.getClassName(), result);
+			}
+
+			@Override
+			public void notifyError(String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		return results;
+	}
+}
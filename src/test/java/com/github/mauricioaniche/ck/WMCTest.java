@@ -109,4 +109,12 @@ public class WMCTest extends BaseTest {
 		Assertions.assertEquals(9, c.getMethod("m2/0").get().getWmc());
 		Assertions.assertEquals(12, c.getMethod("m1/0").get().getWmc());
 	}
+
+	@Test
+	public void operatorsInStringsAndLambdas() {
+		CKClassResult c = report.get("wmc.CC11");
+		Assertions.assertEquals(5, c.getMethod("m1/3[java.lang.String,int,boolean]").get().getWmc());
+		Assertions.assertEquals(5, c.getMethod("m2/2[int,boolean]").get().getWmc());
+		Assertions.assertEquals(3, c.getMethod("m3/1[int]").get().getWmc());
+	}
 }
@@ -0,0 +1,135 @@
+package com.github.mauricioaniche.ck.git;
+
+import com.github.mauricioaniche.ck.CK;
+import com.github.mauricioaniche.ck.CKClassResult;
+import com.github.mauricioaniche.ck.CKNotifier;
+import com.github.mauricioaniche.ck.util.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.github.mauricioaniche.ck.git.GitFixtures.commit;
+import static com.github.mauricioaniche.ck.git.GitFixtures.write;
+
+public class GitDiffTest {
+
+	@Test
+	public void onlyChangedFilesAreAnalyzed(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "src/a/A.java", "package a;\n\npublic class A {\n\tpublic void m() { }\n}");
+			write(repo, "src/a/B.java", "package a;\n\npublic class B {\n}");
+			write(repo, "src/a/Untouched.java", "package a;\n\npublic class Untouched {\n}");
+			RevCommit first = commit(git);
+
+			write(repo, "src/a/A.java", "package a;\n\npublic class A {\n\tpublic void m() { }\n\tpublic void m2() { }\n}");
+			new File(repo.toFile(), "src/a/B.java").delete();
+			write(repo, "src/a/C.java", "package a;\n\npublic class C extends A {\n}");
+			write(repo, "README.md", "not java");
+			RevCommit second = commit(git);
+
+			Map<String, CKClassResult> results = new HashMap<>();
+			GitDiffResult diff = new GitDiff(new CK()).calculate(repo, first.getName(), second.getName(), new CKNotifier() {
+				@Override
+				public void notify(CKClassResult result) {
+					results.put(result.getClassName(), result);
+				}
+
+				@Override
+				public void notifyError(String sourceFilePath, Exception e) {
+					Assertions.fail(sourceFilePath, e);
+				}
+			});
+
+			Assertions.assertEquals(new HashSet<>(Arrays.asList("a.A", "a.C")), results.keySet());
+			Assertions.assertEquals(2, results.get("a.A").getNumberOfMethods());
+			Assertions.assertEquals(new HashSet<>(Arrays.asList("src/a/A.java", "src/a/C.java")), new HashSet<>(diff.getChangedFiles()));
+
+			Assertions.assertEquals(Collections.singleton("a.C"), diff.getAddedClasses());
+			Assertions.assertEquals(Collections.singleton("a.B"), diff.getRemovedClasses());
+			Assertions.assertEquals(Collections.singleton("a.A"), diff.getChangedClasses());
+		}
+	}
+
+	@Test
+	public void onlyChangedFilesOfTheProjectAreAnalyzed(@TempDir Path repo) throws Exception {
+		String ignored = File.separator + "generated" + File.separator;
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "core/src/a/A.java", "package a;\n\npublic class A {\n}");
+			write(repo, "core/generated/a/G.java", "package a;\n\npublic class G {\n}");
+			write(repo, "other/b/B.java", "package b;\n\npublic class B {\n}");
+			RevCommit first = commit(git);
+
+			write(repo, "core/src/a/A.java", "package a;\n\npublic class A {\n\tpublic void m() { }\n}");
+			write(repo, "core/generated/a/G.java", "package a;\n\npublic class G {\n\tpublic void m() { }\n}");
+			new File(repo.toFile(), "other/b/B.java").delete();
+			RevCommit second = commit(git);
+
+			FileUtils.IGNORED_DIRECTORIES.add(ignored);
+			Set<String> classes = new HashSet<>();
+			GitDiffResult diff = new GitDiff(new CK()).calculate(repo.resolve("core"), first.getName(), second.getName(), new CKNotifier() {
+				@Override
+				public void notify(CKClassResult result) {
+					classes.add(result.getClassName());
+				}
+
+				@Override
+				public void notifyError(String sourceFilePath, Exception e) {
+					Assertions.fail(sourceFilePath, e);
+				}
+			});
+
+			Assertions.assertEquals(Collections.singleton("a.A"), classes);
+			Assertions.assertEquals(Collections.singletonList("core/src/a/A.java"), diff.getChangedFiles());
+			Assertions.assertEquals(Collections.singleton("a.A"), diff.getChangedClasses());
+			// B is not in the project, so it was not removed from it
+			Assertions.assertEquals(Collections.emptySet(), diff.getRemovedClasses());
+		} finally {
+			FileUtils.IGNORED_DIRECTORIES.remove(ignored);
+		}
+	}
+
+	@Test
+	public void unknownRevision(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "A.java", "public class A { }");
+			RevCommit first = commit(git);
+
+			Assertions.assertThrows(IllegalArgumentException.class, () ->
+					new GitDiff(new CK()).calculate(repo, first.getName(), "does-not-exist", null));
+		}
+	}
+
+	@Test
+	public void workTreeMustBeAtTheNewRevision(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "A.java", "public class A { }");
+			RevCommit first = commit(git);
+			write(repo, "A.java", "public class A { void m() { } }");
+			RevCommit second = commit(git);
+
+			git.checkout().setName(first.getName()).call();
+			Assertions.assertThrows(IllegalStateException.class, () ->
+					new GitDiff(new CK()).calculate(repo, first.getName(), second.getName(), null));
+		}
+	}
+
+	@Test
+	public void changedFilesMustBeCommitted(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "A.java", "public class A { }");
+			RevCommit first = commit(git);
+			write(repo, "A.java", "public class A { void m() { } }");
+			RevCommit second = commit(git);
+
+			write(repo, "A.java", "public class A { void m() { } void m2() { } }");
+			Assertions.assertThrows(IllegalStateException.class, () ->
+					new GitDiff(new CK()).calculate(repo, first.getName(), second.getName(), null));
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.github.mauricioaniche.ck.git;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+// builds the repositories the git tests mine
+public class GitFixtures {
+
+	static void write(Path repo, String file, String content) throws Exception {
+		FileUtils.writeStringToFile(repo.resolve(file).toFile(), content, StandardCharsets.UTF_8);
+	}
+
+	// commits everything in the working tree, deletions included
+	static RevCommit commit(Git git) throws Exception {
+		git.add().addFilepattern(".").call();
+		git.add().addFilepattern(".").setUpdate(true).call();
+		return git.commit().setMessage("commit").setAuthor("ck", "ck@ck.com").setCommitter("ck", "ck@ck.com").setSign(false).call();
+	}
+}
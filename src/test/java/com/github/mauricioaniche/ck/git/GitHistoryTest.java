@@ -0,0 +1,127 @@
+package com.github.mauricioaniche.ck.git;
+
+import com.github.mauricioaniche.ck.CK;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.github.mauricioaniche.ck.git.GitFixtures.commit;
+import static com.github.mauricioaniche.ck.git.GitFixtures.write;
+
+public class GitHistoryTest {
+
+	@Test
+	public void deltasOfEachCommit(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "src/a/A.java", "package a;\n\npublic class A {\n\tpublic void m() { }\n}");
+			write(repo, "src/a/B.java", "package a;\n\npublic class B {\n\tint x;\n}");
+			RevCommit first = commit(git);
+
+			write(repo, "src/a/A.java", "package a;\n\npublic class A {\n\tpublic void m() { }\n\tpublic void m2() { for(;;) { } }\n}");
+			write(repo, "README.md", "not java");
+			RevCommit second = commit(git);
+
+			new File(repo.toFile(), "src/a/B.java").delete();
+			write(repo, "src/a/C.java", "package a;\n\npublic class C {\n}");
+			RevCommit third = commit(git);
+
+			List<CommitDelta> deltas = mine(repo, null, "HEAD");
+
+			Assertions.assertEquals(Arrays.asList(first.getName(), second.getName(), third.getName()),
+					deltas.stream().map(CommitDelta::getCommitId).collect(Collectors.toList()));
+
+			// first commit: everything is new
+			Assertions.assertNull(deltas.get(0).getParentId());
+			Map<String, ClassDelta> firstDeltas = byClass(deltas.get(0));
+			Assertions.assertEquals(ClassDelta.Change.ADDED, firstDeltas.get("a.A").getChange());
+			Assertions.assertEquals(1, firstDeltas.get("a.A").getDelta("totalMethodsQty"));
+			Assertions.assertEquals(1, firstDeltas.get("a.B").getDelta("totalFieldsQty"));
+
+			// second commit: only A changed, with one more method and one more loop
+			Assertions.assertEquals(first.getName(), deltas.get(1).getParentId());
+			Map<String, ClassDelta> secondDeltas = byClass(deltas.get(1));
+			Assertions.assertEquals(Collections.singleton("a.A"), secondDeltas.keySet());
+			ClassDelta a = secondDeltas.get("a.A");
+			Assertions.assertEquals(ClassDelta.Change.CHANGED, a.getChange());
+			Assertions.assertEquals(1, a.getDelta("totalMethodsQty"));
+			Assertions.assertEquals(1, a.getDelta("loopQty"));
+			Assertions.assertEquals(0, a.getDelta("totalFieldsQty"));
+			Assertions.assertEquals(2, a.getMetrics().get("totalMethodsQty"));
+
+			// third commit: B is gone, C is new
+			Map<String, ClassDelta> thirdDeltas = byClass(deltas.get(2));
+			Assertions.assertEquals(new HashSet<>(Arrays.asList("a.B", "a.C")), thirdDeltas.keySet());
+			Assertions.assertEquals(ClassDelta.Change.REMOVED, thirdDeltas.get("a.B").getChange());
+			Assertions.assertEquals(-1, thirdDeltas.get("a.B").getDelta("totalFieldsQty"));
+			Assertions.assertEquals("src/a/B.java", thirdDeltas.get("a.B").getFile());
+			Assertions.assertEquals(ClassDelta.Change.ADDED, thirdDeltas.get("a.C").getChange());
+		}
+	}
+
+	@Test
+	public void startsAfterTheFirstRevision(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "A.java", "public class A {\n\tpublic void m() { }\n}");
+			RevCommit first = commit(git);
+
+			write(repo, "A.java", "public class A {\n\tpublic void m() { }\n\tpublic void m2() { }\n}");
+			RevCommit second = commit(git);
+
+			List<CommitDelta> deltas = mine(repo, first.getName(), second.getName());
+
+			// A already existed in the first revision, so it changed rather than being added
+			Assertions.assertEquals(1, deltas.size());
+			ClassDelta a = byClass(deltas.get(0)).get("A");
+			Assertions.assertEquals(ClassDelta.Change.CHANGED, a.getChange());
+			Assertions.assertEquals(1, a.getDelta("totalMethodsQty"));
+		}
+	}
+
+	@Test
+	public void onlyTheMetricsTheAnalysisCalculates(@TempDir Path repo) throws Exception {
+		try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+			write(repo, "A.java", "public class A {\n\tpublic void m() { for(;;) { } }\n}");
+			commit(git);
+
+			CK ck = new CK(false, 0, false, 1, Arrays.asList("totalMethodsQty", "loopQty", "dit"));
+			// dit needs bindings
+			ck.setSyntaxOnly(true);
+			Assertions.assertEquals(Arrays.asList("loopQty", "totalMethodsQty"), new GitHistory(ck).getColumns());
+
+			ClassDelta a = byClass(mine(repo, null, "HEAD", ck).get(0)).get("A");
+			Assertions.assertEquals(new HashSet<>(Arrays.asList("loopQty", "totalMethodsQty")), a.getDeltas().keySet());
+			Assertions.assertEquals(1, a.getDelta("loopQty"));
+		}
+	}
+
+	private List<CommitDelta> mine(Path repo, String from, String to) throws Exception {
+		return mine(repo, from, to, new CK());
+	}
+
+	private List<CommitDelta> mine(Path repo, String from, String to, CK ck) throws Exception {
+		List<CommitDelta> deltas = new ArrayList<>();
+		new GitHistory(ck).calculate(repo, from, to, new CommitNotifier() {
+			@Override
+			public void notify(CommitDelta delta) {
+				deltas.add(delta);
+			}
+
+			@Override
+			public void notifyError(String commitId, String sourceFilePath, Exception e) {
+				Assertions.fail(sourceFilePath, e);
+			}
+		});
+		return deltas;
+	}
+
+	private Map<String, ClassDelta> byClass(CommitDelta delta) {
+		return delta.getClasses().stream().collect(Collectors.toMap(ClassDelta::getClassName, d -> d));
+	}
+}
@@ -0,0 +1,69 @@
+package com.github.mauricioaniche.ck.util;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CodeLinesTest {
+
+	@Test
+	public void blankAndCommentLinesDoNotCount() {
+		String source =
+				"class A {\n" +
+				"\n" +
+				"\t// comment\n" +
+				"\t/* comment\n" +
+				"\t * comment */\n" +
+				"\tprivate int a; // comment\n" +
+				"\t/** javadoc */\n" +
+				"\tvoid m1() {\n" +
+				"\t\t/* comment */ a = 1;\n" +
+				"\t}\n" +
+				"}\n";
+
+		TypeDeclaration type = typeOf(source);
+		CodeLines lines = new CodeLines((CompilationUnit) type.getRoot(), source.toCharArray());
+
+		Assertions.assertEquals(6, lines.count(type));
+		Assertions.assertEquals(3, lines.count(type.getMethods()[0]));
+	}
+
+	@Test
+	public void windowsLineBreaks() {
+		String source = "class A {\r\n\r\n\tvoid m1() {\r\n\t\tint a = 1;\r\n\t}\r\n}\r\n";
+
+		TypeDeclaration type = typeOf(source);
+		CodeLines lines = new CodeLines((CompilationUnit) type.getRoot(), source.toCharArray());
+
+		Assertions.assertEquals(5, lines.count(type));
+		Assertions.assertEquals(3, lines.count(type.getMethods()[0]));
+	}
+
+	@Test
+	public void commentMarkersInStringsAreCode() {
+		String source =
+				"class A {\n" +
+				"\tString s = \"/* not a comment\";\n" +
+				"\tvoid m1() { }\n" +
+				"\tString t = \"*/\";\n" +
+				"}\n";
+
+		TypeDeclaration type = typeOf(source);
+		CodeLines lines = new CodeLines((CompilationUnit) type.getRoot(), source.toCharArray());
+
+		MethodDeclaration m1 = type.getMethods()[0];
+		Assertions.assertEquals(5, lines.count(type));
+		Assertions.assertEquals(1, lines.count(m1));
+	}
+
+	private TypeDeclaration typeOf(String source) {
+		ASTParser parser = ASTParser.newParser(AST.JLS11);
+		parser.setSource(source.toCharArray());
+		CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+		return (TypeDeclaration) cu.types().get(0);
+	}
+}
@@ -0,0 +1,56 @@
+package com.github.mauricioaniche.ck.util;
+
+import com.github.mauricioaniche.ck.CKMethodResult;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class MethodGraphTest {
+
+	@Test
+	public void componentsComeInReverseTopologicalOrder() {
+		// 0 -> 1 <-> 2 -> 3, and 4 alone
+		BitSet[] edges = edges(5);
+		edges[0].set(1);
+		edges[1].set(2);
+		edges[2].set(1);
+		edges[2].set(3);
+
+		int[] component = MethodGraph.components(edges);
+
+		Assertions.assertEquals(component[1], component[2]);
+		Assertions.assertEquals(4, Arrays.stream(component).distinct().count());
+		Assertions.assertTrue(component[3] < component[1]);
+		Assertions.assertTrue(component[1] < component[0]);
+	}
+
+	@Test
+	public void longChainsOfInvocations() {
+		// m0 -> m1 -> ... -> m9999, which used to overflow the stack
+		List<CKMethodResult> methods = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			CKMethodResult method = new CKMethodResult("m" + i + "/0", "A.m" + i + "/0", false, 0);
+			method.setStartLine(i + 1);
+			if (i < 9999)
+				method.setMethodInvocations(Sets.newHashSet("A.m" + (i + 1) + "/0", "java.lang.String.valueOf/1[int]"));
+			methods.add(method);
+		}
+
+		MethodGraph graph = new MethodGraph(methods);
+
+		Assertions.assertEquals(Sets.newHashSet("A.m1/0"), graph.localInvocations("A.m0/0"));
+		Map<String, Set<String>> indirect = graph.indirectLocalInvocations("A.m0/0");
+		Assertions.assertEquals(9999, indirect.size());
+		Assertions.assertEquals(Sets.newHashSet("A.m9999/0"), indirect.get("A.m9998/0"));
+		Assertions.assertEquals(0, graph.indirectLocalInvocations("A.m9999/0").size());
+	}
+
+	private BitSet[] edges(int nodes) {
+		BitSet[] edges = new BitSet[nodes];
+		for (int i = 0; i < nodes; i++)
+			edges[i] = new BitSet();
+		return edges;
+	}
+}
@@ -0,0 +1,52 @@
+package com.github.mauricioaniche.ck.util;
+
+import com.github.mauricioaniche.ck.metric.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsFinderTest {
+
+    @Test
+    public void onlySelectedMetricsAreInstantiated() {
+        MetricsFinder finder = new MetricsFinder(Arrays.asList("wmc", "CBO", "loc"));
+
+        assertThat(classesOf(finder.allClassLevelMetrics())).containsExactlyInAnyOrder(WMC.class, CBO.class);
+        assertThat(classesOf(finder.allMethodLevelMetrics(true))).containsExactlyInAnyOrder(WMC.class, CBO.class);
+    }
+
+    @Test
+    public void dependenciesComeFirst() {
+        MetricsFinder finder = new MetricsFinder(Arrays.asList("tcc"));
+
+        List<Class<?>> classLevel = classesOf(finder.allClassLevelMetrics());
+        assertThat(classLevel).containsExactly(RFC.class, MethodInvocationsLocal.class, TightClassCohesion.class);
+
+        List<Class<?>> methodLevel = classesOf(finder.allMethodLevelMetrics(true));
+        assertThat(methodLevel).containsExactlyInAnyOrder(RFC.class, MethodLevelFieldUsageCount.class);
+    }
+
+    @Test
+    public void variablesAndFieldsAreFilteredPerCall() {
+        MetricsFinder finder = new MetricsFinder();
+
+        // the first call used to decide the metrics of all the following ones
+        assertThat(classesOf(finder.allMethodLevelMetrics(false))).doesNotContain(MethodLevelFieldUsageCount.class);
+        assertThat(classesOf(finder.allMethodLevelMetrics(true))).contains(MethodLevelFieldUsageCount.class);
+        assertThat(classesOf(new MetricsFinder().allMethodLevelMetrics(false))).doesNotContain(MethodLevelFieldUsageCount.class);
+    }
+
+    @Test
+    public void unknownMetric() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MetricsFinder(Arrays.asList("wmc", "xyz")));
+    }
+
+    private List<Class<?>> classesOf(List<?> metrics) {
+        return metrics.stream().map(Object::getClass).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.mauricioaniche.ck.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ObjectIntMapTest {
+
+	@Test
+	public void readAsAMap() {
+		ObjectIntMap<String> counts = new ObjectIntMap<>();
+		Map<String, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			String key = "field" + (i % 30);
+			counts.put(key, counts.get(key, 0) + 1);
+			expected.merge(key, 1, Integer::sum);
+		}
+
+		Map<String, Integer> map = counts.asMap();
+		Assertions.assertEquals(expected, map);
+		Assertions.assertEquals(map, expected);
+		Assertions.assertEquals(30, map.size());
+		Assertions.assertEquals(4, map.get("field0"));
+		Assertions.assertNull(map.get("field30"));
+		Assertions.assertTrue(map.keySet().contains("field29"));
+		Assertions.assertFalse(map.containsKey("field30"));
+	}
+}
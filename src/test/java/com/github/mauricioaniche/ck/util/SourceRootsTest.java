@@ -0,0 +1,75 @@
+package com.github.mauricioaniche.ck.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SourceRootsTest {
+
+	@Test
+	public void packageDeclarations() {
+		Assertions.assertEquals("a.b.c", SourceRoots.packageOf("package a.b.c;\n\nclass A {}".toCharArray()));
+		Assertions.assertEquals("a.b", SourceRoots.packageOf("/* license */\n// package x;\npackage a . b ;".toCharArray()));
+		Assertions.assertEquals("a", SourceRoots.packageOf("@Deprecated(since = \"1\")\npackage a;".toCharArray()));
+		Assertions.assertEquals("a.module.record.var", SourceRoots.packageOf("package a.module.record.var;".toCharArray()));
+
+		// the default package
+		Assertions.assertEquals("", SourceRoots.packageOf("import a.B;\n\nclass A { String s = \"package x;\"; }".toCharArray()));
+		Assertions.assertEquals("", SourceRoots.packageOf("@Deprecated public class A { }".toCharArray()));
+		Assertions.assertEquals("", SourceRoots.packageOf("".toCharArray()));
+		Assertions.assertEquals("", SourceRoots.packageOf("package a.b".toCharArray()));
+	}
+
+	@Test
+	public void rootsAreWherePackagesStart(@TempDir Path project) throws IOException {
+		write(project.resolve("src/main/java/a/b/A.java"), "package a.b;\nclass A {}");
+		write(project.resolve("src/main/java/a/B.java"), "package a;\nclass B {}");
+		write(project.resolve("src/test/java/a/b/ATest.java"), "/* license */\npackage a.b;\nclass ATest {}");
+		write(project.resolve("src/main/resources/a.properties"), "a=b");
+		// the directory of the file does not match its package
+		write(project.resolve("fixtures/x/C.java"), "package y;\nclass C {}");
+		// the default package
+		write(project.resolve("D.java"), "class D {}");
+		// its root is the directory the project is in
+		write(project.resolve("e/E.java"), "package " + project.getFileName() + ".e;\nclass E {}");
+
+		String[] roots = new SourceRoots().infer(project.toString(), FileUtils.getAllJavaFiles(project.toString()));
+
+		Assertions.assertArrayEquals(new String[] {
+				project.toString(),
+				project.resolve("fixtures/x").toString(),
+				project.resolve("src/main/java").toString(),
+				project.resolve("src/test/java").toString() }, roots);
+	}
+
+	@Test
+	public void onlyChangedFilesAreReadAgain(@TempDir Path project) throws IOException {
+		Path file = project.resolve("src/a/A.java");
+		write(file, "package a;\nclass A {}");
+
+		SourceRoots sourceRoots = new SourceRoots();
+		Assertions.assertArrayEquals(new String[] { project.resolve("src").toString() },
+				sourceRoots.infer(project.toString(), FileUtils.getAllJavaFiles(project.toString())));
+
+		// same modification time, so the file is not read again
+		long lastModified = file.toFile().lastModified();
+		write(file, "package b;\nclass A {}");
+		file.toFile().setLastModified(lastModified);
+		Assertions.assertArrayEquals(new String[] { project.resolve("src").toString() },
+				sourceRoots.infer(project.toString(), FileUtils.getAllJavaFiles(project.toString())));
+
+		file.toFile().setLastModified(lastModified + 1000);
+		Assertions.assertArrayEquals(new String[] { project.resolve("src/a").toString() },
+				sourceRoots.infer(project.toString(), FileUtils.getAllJavaFiles(project.toString())));
+	}
+
+	private static void write(Path file, String content) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -57,4 +57,39 @@ public class WordCounterTest {
 		Assertions.assertEquals(4, words.size());
 	}
 
+	@Test
+	public void emptyPiecesOfWordsAlsoCount() {
+		// "a__b" breaks into "a", "", and "b"
+		Set<String> words = WordCounter.wordsIn("a__b");
+
+		Assertions.assertEquals(3, words.size());
+		Assertions.assertTrue(words.contains(""));
+	}
+
+	@Test
+	public void onlyWordCharactersAndNoNumbers() {
+		Set<String> words = WordCounter.wordsIn("x.y 123 a1 <T> list[0] c\u00e3o");
+
+		Assertions.assertEquals(1, words.size());
+		Assertions.assertTrue(words.contains("a1"));
+	}
+
+	@Test
+	public void uniqueWordsQtyIsTheSizeOfTheSetOfWords() {
+		String[] sourceCodes = {
+				"thisIsABigWord another_word_like_this now_weMix",
+				"class Test { int a__b; String s = \"hello world\"; }",
+				"if(aB==bA||cC!=dD) { return x_Y + y_X; } // aB",
+				""
+		};
+
+		for (String sourceCode : sourceCodes)
+			Assertions.assertEquals(WordCounter.wordsIn(sourceCode).size(), WordCounter.uniqueWordsQty(sourceCode), sourceCode);
+	}
+
+	@Test
+	public void removeSpaces() {
+		Assertions.assertEquals("a b c d", WordCounter.removeSpacesAndIdentation("  a\tb\r\n  c \n\n d\n"));
+	}
+
 }